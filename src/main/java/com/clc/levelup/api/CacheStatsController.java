@@ -0,0 +1,47 @@
+package com.clc.levelup.api;
+
+import com.clc.levelup.service.ProductService;
+import com.clc.levelup.web.PageCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only monitoring endpoint for in-process caches.
+ * Endpoints:
+ *  - GET /api/cache/stats : hit/miss/eviction counters keyed by cache name
+ * Security: protected via HTTP Basic per SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    private final ProductService productService;
+    private final PageCache pageCache;
+
+    /**
+     * Constructor injection for the services that own caches.
+     * @param productService service owning the product cache
+     * @param pageCache rendered-HTML cache for anonymous product pages
+     */
+    public CacheStatsController(ProductService productService, PageCache pageCache) {
+        this.productService = productService;
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * GET /api/cache/stats
+     * @return 200 with one stats object per cache
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("products", productService.cacheStats());
+        body.put("pages", pageCache.stats());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,169 @@
+package com.clc.levelup.api;
+
+import com.clc.levelup.cart.Cart;
+import com.clc.levelup.cart.CartBatchResult;
+import com.clc.levelup.cart.CartBatchService;
+import com.clc.levelup.cart.CartItem;
+import com.clc.levelup.cart.CartLineRequest;
+import com.clc.levelup.cart.CartService;
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JSON cart for in-page updates, so a cart change is one small request
+ * instead of a POST, a redirect and a full page render.
+ * Endpoints:
+ *  - GET    /api/cart                  : lines and totals
+ *  - POST   /api/cart/items            : add or increment {"productId":7,"quantity":1}
+ *  - POST   /api/cart/items/batch      : add many at once [{"productId":7,"quantity":1}, ...]
+ *  - PUT    /api/cart/items/{productId} : set quantity {"quantity":3}
+ *  - DELETE /api/cart/items/{productId} : remove the line
+ * Changes answer with the affected line (null once removed) and the cart summary.
+ * A quantity above {@link CartItem#MAX_QUANTITY} is a 400; a line that would
+ * grow past it is capped.
+ * Security: any signed-in user via the browser session; CSRF token required
+ * (X-CSRF-TOKEN header) like every other session POST.
+ */
+@RestController
+@RequestMapping("/api/cart")
+public class CartApiController {
+
+    private final CartService carts;
+    private final CartBatchService batch;
+    private final ProductService productService;
+
+    /**
+     * Constructor injection.
+     * @param carts cart service
+     * @param batch multi-product add
+     * @param productService product lookup for new lines
+     */
+    public CartApiController(CartService carts, CartBatchService batch, ProductService productService) {
+        this.carts = carts;
+        this.batch = batch;
+        this.productService = productService;
+    }
+
+    /**
+     * GET /api/cart
+     * @param auth current user
+     * @return cart lines and totals
+     */
+    @GetMapping
+    public ResponseEntity<Cart> get(Authentication auth) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(carts.getCart(cartKey(auth)));
+    }
+
+    /**
+     * POST /api/cart/items
+     * @param body product id and quantity to add (at least 1)
+     * @param auth current user
+     * @return 200 with the line and summary, 400 without a product id or above the maximum quantity,
+     *         or 404 for an unknown product
+     */
+    @PostMapping(value = "/items", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> add(@RequestBody CartLineRequest body, Authentication auth) {
+        if (body.getProductId() == null) {
+            return error(HttpStatus.BAD_REQUEST, "productId is required");
+        }
+        if (body.getQuantity() > CartItem.MAX_QUANTITY) {
+            return tooMany();
+        }
+        Optional<Product> product = productService.findById(body.getProductId());
+        if (product.isEmpty()) {
+            return error(HttpStatus.NOT_FOUND, "Product not found: " + body.getProductId());
+        }
+        Product p = product.get();
+        Cart cart = carts.addOrIncrement(cartKey(auth),
+                new CartItem(p.getId(), p.getName(), p.getPrice(), Math.max(1, body.getQuantity())));
+        return changed(cart, p.getId());
+    }
+
+    /**
+     * POST /api/cart/items/batch
+     * All products are resolved in one lookup and added in one cart update.
+     * @param body product ids with quantities; repeated ids are merged
+     * @param auth current user
+     * @return 200 with the affected lines, unknown ids ("missing") and the summary, or 400 for an invalid list
+     */
+    @PostMapping(value = "/items/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> addAll(@RequestBody List<CartLineRequest> body, Authentication auth) {
+        CartBatchResult result;
+        try {
+            result = batch.addAll(cartKey(auth), body);
+        } catch (IllegalArgumentException ex) {
+            return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("lines", result.getLines());
+        out.put("missing", result.getMissing());
+        out.put("summary", result.getCart().summary());
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(out);
+    }
+
+    /**
+     * PUT /api/cart/items/{productId}
+     * @param productId product whose line changes
+     * @param body new quantity (values below 1 become 1)
+     * @param auth current user
+     * @return 200 with the line and summary, 400 above the maximum quantity,
+     *         or 404 when the product is not in the cart
+     */
+    @PutMapping(value = "/items/{productId}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> update(@PathVariable long productId, @RequestBody CartLineRequest body,
+                                                      Authentication auth) {
+        if (body.getQuantity() > CartItem.MAX_QUANTITY) {
+            return tooMany();
+        }
+        Cart cart = carts.updateQuantity(cartKey(auth), productId, Math.max(1, body.getQuantity()));
+        if (cart.getItem(productId).isEmpty()) {
+            return error(HttpStatus.NOT_FOUND, "Product not in cart: " + productId);
+        }
+        return changed(cart, productId);
+    }
+
+    /**
+     * DELETE /api/cart/items/{productId}
+     * Removing a product that is not in the cart is not an error.
+     * @param productId product to remove
+     * @param auth current user
+     * @return 200 with a null line and the summary
+     */
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<Map<String, Object>> remove(@PathVariable long productId, Authentication auth) {
+        return changed(carts.remove(cartKey(auth), productId), productId);
+    }
+
+    // Affected line plus totals; enough for the page to patch one row and the badge
+    private static ResponseEntity<Map<String, Object>> changed(Cart cart, long productId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("line", cart.getItem(productId).orElse(null));
+        body.put("summary", cart.summary());
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    private static ResponseEntity<Map<String, Object>> tooMany() {
+        return error(HttpStatus.BAD_REQUEST, "quantity must be at most " + CartItem.MAX_QUANTITY);
+    }
+
+    private static String cartKey(Authentication auth) {
+        return CartService.userKey(auth.getName());
+    }
+}
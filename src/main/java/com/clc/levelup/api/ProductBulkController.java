@@ -0,0 +1,55 @@
+package com.clc.levelup.api;
+
+import com.clc.levelup.service.BulkAdjustment;
+import com.clc.levelup.service.ProductBulkService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin bulk price and stock changes.
+ * Endpoints:
+ *  - POST /api/products/adjust : SET_PRICE, PERCENT_PRICE, ADD_STOCK or SET_STOCK
+ *    for an id list, a category, or a partNumber pattern
+ * Security: ROLE_ADMIN over HTTP Basic per SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductBulkController {
+
+    private final ProductBulkService bulkService;
+
+    /**
+     * Constructor injection for the bulk service.
+     * @param bulkService set-based update service
+     */
+    public ProductBulkController(ProductBulkService bulkService) {
+        this.bulkService = bulkService;
+    }
+
+    /**
+     * POST /api/products/adjust
+     * Example: {"operation":"PERCENT_PRICE","value":-10,"category":"Apparel"}
+     * @param adj operation, value and selector
+     * @return 200 with the affected row count, or 400 with an error message
+     */
+    @PostMapping(value = "/adjust", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> adjust(@RequestBody BulkAdjustment adj) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        try {
+            int affected = bulkService.adjust(adj);
+            body.put("operation", adj.getOperation());
+            body.put("affected", affected);
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException ex) {
+            body.put("error", ex.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.clc.levelup.api;
+
+import com.clc.levelup.service.CatalogChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Push feed of catalog changes for partner storefronts.
+ * Endpoints:
+ *  - GET /api/products/changes : Server-Sent Events stream of created, updated, deleted,
+ *    stock_changed and reloaded events; send Last-Event-ID to resume after a disconnect
+ * Security: ROLE_API over HTTP Basic per SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductChangesController {
+
+    private final CatalogChangeFeed feed;
+
+    /**
+     * Constructor injection for the change feed.
+     * @param feed shared SSE feed
+     */
+    public ProductChangesController(CatalogChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * GET /api/products/changes
+     * Opens an event stream. Buffered events after {@code Last-Event-ID} are replayed first;
+     * a {@code reset} event means the id is too old and the client should refetch /api/products.
+     * @param lastEventId id of the last event the client saw (sent automatically by EventSource)
+     * @param response used to turn off proxy buffering
+     * @return emitter completed by timeout or client disconnect
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                              HttpServletResponse response) {
+        response.setHeader("Cache-Control", "no-store");
+        response.setHeader("X-Accel-Buffering", "no");
+        return feed.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,68 @@
+package com.clc.levelup.api;
+
+import com.clc.levelup.service.ImportSummary;
+import com.clc.levelup.service.ProductImportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admin bulk import for the product catalog.
+ * Endpoints:
+ *  - POST /api/products/import : upsert products by partNumber from CSV, a JSON array, or NDJSON
+ * The body is read straight from the request stream, so large files are never buffered.
+ * Security: ROLE_ADMIN over HTTP Basic per SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/products")
+public class ProductImportController {
+
+    /** Media type for CSV uploads. */
+    static final String CSV = "text/csv";
+
+    private final ProductImportService importService;
+
+    /**
+     * Constructor injection for the import service.
+     * @param importService batched upsert service
+     */
+    public ProductImportController(ProductImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * POST /api/products/import
+     * Insert new products and update existing ones (matched on partNumber).
+     * Bad rows are skipped and listed in the summary; the rest are still imported.
+     * @param contentType request content type, selects the parser
+     * @param request servlet request whose body is streamed
+     * @return 200 with the summary, or 400 with the partial summary when the input is malformed
+     * @throws IOException if the request body cannot be opened
+     */
+    @PostMapping(value = "/import",
+                 consumes = { CSV, MediaType.APPLICATION_JSON_VALUE, ProductsApiController.NDJSON })
+    public ResponseEntity<ImportSummary> importProducts(@RequestHeader("Content-Type") MediaType contentType,
+                                                        HttpServletRequest request) throws IOException {
+        ImportSummary summary;
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(CSV))) {
+            Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+            summary = importService.importCsv(request.getInputStream(), charset);
+        } else {
+            summary = importService.importJson(request.getInputStream());
+        }
+
+        // Malformed input: report what was written before the parser gave up
+        if (summary.isAborted()) {
+            return ResponseEntity.badRequest().body(summary);
+        }
+        return ResponseEntity.ok(summary);
+    }
+}
@@ -1,43 +1,220 @@
 package com.clc.levelup.api;
 
 import com.clc.levelup.model.Product;
+import com.clc.levelup.search.FacetCount;
+import com.clc.levelup.search.FacetService;
+import com.clc.levelup.search.FilterPage;
+import com.clc.levelup.search.ProductFilter;
+import com.clc.levelup.search.ProductRangeIndex;
+import com.clc.levelup.search.ProductSearchService;
+import com.clc.levelup.search.ProductSuggester;
+import com.clc.levelup.search.SearchResult;
+import com.clc.levelup.search.Suggestion;
+import com.clc.levelup.service.CatalogSnapshot;
+import com.clc.levelup.service.CatalogSnapshotService;
+import com.clc.levelup.service.CatalogVersion;
+import com.clc.levelup.service.ProductExportService;
+import com.clc.levelup.service.ProductFields;
+import com.clc.levelup.service.ProductPage;
+import com.clc.levelup.service.ProductProjectionService;
 import com.clc.levelup.service.ProductService;
+import com.clc.levelup.service.ProductSort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * REST endpoints for product data.
  * Endpoints:
- *  - GET /api/products        : list all products
+ *  - GET /api/products        : list all products, or one keyset page when
+ *                               size/after/sort is given (Link: rel="next");
+ *                               fields=summary|full|a,b,c selects columns;
+ *                               category/minPrice/maxPrice/inStock filter and
+ *                               sort=price|price_desc|newest orders from memory (page, size)
  *  - GET /api/products/{id}   : get one product by id
+ *  - PUT /api/products/{id}   : update one product; body carries its version (409 on conflict)
+ *  - GET /api/products/export : stream the whole catalog as NDJSON
+ *  - GET /api/products/search : ranked, typo-tolerant search (q, limit)
+ *  - GET /api/products/facets : category and manufacturer counts
+ *  - GET /api/products/suggest: typeahead by name/part number prefix (q, limit)
+ *  - GET /api/products/by-part/{partNumber} : get one product by part number
+ *  - GET /api/products/by-part?partNumbers=A,B : resolve many part numbers at once
+ *  - GET /api/products?ids=1,2,3 : resolve many ids at once
+ *  - POST /api/products/lookup : same as ?ids= with a JSON array body, for long id lists
+ * List and detail responses carry strong ETags and Last-Modified; matching
+ * If-None-Match / If-Modified-Since requests get 304 without touching products.
  * Security: protected via HTTP Basic per SecurityConfig.
  */
 @RestController
 @RequestMapping("/api/products")
 public class ProductsApiController {
 
+    /** Media type for newline-delimited JSON. */
+    static final String NDJSON = "application/x-ndjson";
+
+    // Let clients keep a copy but revalidate it on every poll
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Column limits from levelup_db.sql, checked before a PUT reaches MySQL
+    private static final int MAX_NAME = 128;
+    private static final int MAX_DESCRIPTION = 512;
+    private static final int MAX_MANUFACTURER = 128;
+    private static final int MAX_CATEGORY = 64;
+    private static final int MAX_PART_NUMBER = 64;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
     // Connect the controller to the product service layer
     private final ProductService productService;
+    private final ProductExportService exportService;
+    private final ProductSearchService searchService;
+    private final FacetService facetService;
+    private final ProductSuggester suggester;
+    private final CatalogVersion catalogVersion;
+    private final ProductProjectionService projectionService;
+    private final CatalogSnapshotService snapshotService;
+    private final ProductRangeIndex rangeIndex;
 
     /**
-     * Constructor injection for ProductService.
+     * Constructor injection for the product services.
      * @param productService service providing product operations
+     * @param exportService service streaming the catalog export
+     * @param searchService in-memory product search
+     * @param facetService in-memory facet counts
+     * @param suggester in-memory typeahead index
+     * @param catalogVersion catalog version and modification stamps
+     * @param projectionService column-selective product listings
+     * @param snapshotService pre-encoded full catalog
+     * @param rangeIndex in-memory sorted indexes for filtering
      */
-    public ProductsApiController(ProductService productService) {
+    public ProductsApiController(ProductService productService,
+                                 ProductExportService exportService,
+                                 ProductSearchService searchService,
+                                 FacetService facetService,
+                                 ProductSuggester suggester,
+                                 CatalogVersion catalogVersion,
+                                 ProductProjectionService projectionService,
+                                 CatalogSnapshotService snapshotService,
+                                 ProductRangeIndex rangeIndex) {
         this.productService = productService;
+        this.exportService = exportService;
+        this.searchService = searchService;
+        this.facetService = facetService;
+        this.suggester = suggester;
+        this.catalogVersion = catalogVersion;
+        this.projectionService = projectionService;
+        this.snapshotService = snapshotService;
+        this.rangeIndex = rangeIndex;
     }
 
     /**
      * GET /api/products
-     * Return all products. Responds 204 when none exist.
-     * @return 200 with products or 204 when empty
+     * Return all products, or a single page when any paging parameter is present.
+     * Paged responses carry the next cursor in {@code X-Next-Cursor} and a
+     * {@code Link: <...>; rel="next"} header. Without paging parameters the full
+     * list is returned so existing sync clients keep working.
+     * With {@code fields} only the chosen columns are read and returned, e.g.
+     * {@code fields=summary} (id, name, price, quantity) or {@code fields=id,name,category}.
+     * Category, price range and in-stock filters, and the price/newest orders,
+     * are served from the in-memory range index with numbered pages.
+     * Responds 204 when none exist.
+     * @param sort optional sort order ("id", "name", "price", "price_desc" or "newest")
+     * @param after optional cursor from the previous page
+     * @param size optional page size (capped by ProductService.MAX_PAGE_SIZE)
+     * @param fields optional field list and/or projection name ("summary", "full")
+     * @param category optional category filter
+     * @param minPrice optional lowest price, inclusive
+     * @param maxPrice optional highest price, inclusive
+     * @param inStock only products in stock when true
+     * @param page 1-based page number for filtered listings
+     * @param request current request, used for the conditional GET check
+     * @return 200 with products, 204 when empty, 304 when unchanged,
+     *         or 400 for a bad cursor, sort, filter or field name
      */
     @GetMapping
-    public ResponseEntity<Iterable<Product>> getAll() {
-        // Query all products from the service
-        Iterable<Product> items = productService.findAll();
+    public ResponseEntity<?> getAll(@RequestParam(value = "sort", required = false) String sort,
+                                    @RequestParam(value = "after", required = false) String after,
+                                    @RequestParam(value = "size", required = false) Integer size,
+                                    @RequestParam(value = "fields", required = false) String fields,
+                                    @RequestParam(value = "category", required = false) String category,
+                                    @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                                    @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                                    @RequestParam(value = "inStock", required = false) Boolean inStock,
+                                    @RequestParam(value = "page", required = false) Integer page,
+                                    WebRequest request) {
+        ProductFilter filter = null;
+        if (ProductFilter.isRequested(category, minPrice, maxPrice, inStock, sort)) {
+            try {
+                filter = ProductFilter.of(category, minPrice, maxPrice, inStock, sort, page, size);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+            }
+        }
+        boolean paged = filter == null && (sort != null || after != null || size != null);
+
+        ProductFields projection = null;
+        if (fields != null) {
+            try {
+                projection = ProductFields.parse(fields);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+            }
+        }
+
+        // Answer polls from the version counter before any product is loaded
+        String variant = (paged ? "sort=" + sort + "&after=" + after + "&size=" + size : "")
+                + (filter != null ? filter.toString() : "")
+                + (projection != null ? "&fields=" + projection : "");
+        String etag = catalogVersion.listEtag(variant);
+
+        // Unfiltered list: the pre-encoded snapshot, when it matches this version,
+        // decides the encoding up front so gzip and identity bodies get different tags
+        CatalogSnapshot snapshot = null;
+        boolean gzip = false;
+        if (filter == null && !paged && projection == null) {
+            snapshot = snapshotService.current();
+            gzip = snapshot != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (gzip) {
+                etag = gzipEtag(etag);
+            }
+        }
+        if (request.checkNotModified(etag, catalogVersion.catalogLastModified())) {
+            ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE);
+            if (snapshot != null) {
+                notModified.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+
+        if (filter != null) {
+            return getFiltered(filter, projection);
+        }
+        if (paged) {
+            return getPage(sort, after, size, projection);
+        }
+
+        if (snapshot != null) {
+            return snapshotResponse(snapshot, gzip);
+        }
+
+        // Query all products from the service (only the chosen columns when projected)
+        Iterable<?> items = projection != null ? projectionService.findAll(projection) : productService.findAll();
 
         // If there are no products, return 204 No Content
         if (items == null || !items.iterator().hasNext()) {
@@ -45,22 +222,389 @@ public class ProductsApiController {
         }
 
         // Return 200 OK with the product data
-        return ResponseEntity.ok(items);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(items);
+    }
+
+    /**
+     * Write a catalog snapshot as-is, gzip-encoded when the client accepts it.
+     * @param snapshot pre-encoded catalog
+     * @param gzip true to send the gzip bytes
+     * @return 200 with the snapshot bytes, or 204 when the catalog is empty
+     */
+    private ResponseEntity<?> snapshotResponse(CatalogSnapshot snapshot, boolean gzip) {
+        if (snapshot.getProductCount() == 0) {
+            return ResponseEntity.noContent().build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return ok.body(snapshot.getJson());
+    }
+
+    /**
+     * Strong tag for the gzip body of a listing; it differs from the identity
+     * tag because the bytes differ.
+     * @param etag quoted identity tag
+     * @return quoted tag with a {@code -gz} suffix
+     */
+    static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip. An explicit gzip entry wins;
+     * otherwise {@code *} decides. A q-value of 0 means "not acceptable".
+     * @param header Accept-Encoding value, may be null
+     * @return true when gzip has a q-value above 0
+     */
+    static boolean acceptsGzip(String header) {
+        if (header == null || header.isBlank()) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String entry : header.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                anyQ = q;
+            }
+        }
+        if (gzipQ != null) {
+            return gzipQ > 0;
+        }
+        return anyQ != null && anyQ > 0;
+    }
+
+    /**
+     * Serve one filtered page from the range index, with a next-page link.
+     * @param filter parsed filter
+     * @param projection selected fields, or null for full products
+     * @return 200 with the page
+     */
+    private ResponseEntity<?> getFiltered(ProductFilter filter, ProductFields projection) {
+        FilterPage result = rangeIndex.find(filter);
+        List<?> items = projection == null
+                ? result.getItems()
+                : result.getItems().stream().map(projection::project).collect(Collectors.toList());
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (result.isHasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page", filter.getPage() + 1)
+                    .replaceQueryParam("size", filter.getSize())
+                    .build()
+                    .toUriString();
+            ok.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ok.body(items);
+    }
+
+    /**
+     * Serve one keyset page with next-page headers.
+     * @param sort sort order parameter
+     * @param after cursor parameter
+     * @param size page size parameter
+     * @param projection selected fields, or null for full products
+     * @return 200 with the page, or 400 for a bad cursor/sort
+     */
+    private ResponseEntity<?> getPage(String sort, String after, Integer size, ProductFields projection) {
+        List<?> items;
+        ProductSort pageSort;
+        int pageSize;
+        String nextCursor;
+        try {
+            if (projection != null) {
+                ProductProjectionService.Page page =
+                        projectionService.findPage(projection, ProductSort.parse(sort), after, size);
+                items = page.getItems();
+                pageSort = page.getSort();
+                pageSize = page.getSize();
+                nextCursor = page.getNextCursor();
+            } else {
+                ProductPage page = productService.findPage(ProductSort.parse(sort), after, size);
+                items = page.getItems();
+                pageSort = page.getSort();
+                pageSize = page.getSize();
+                nextCursor = page.getNextCursor();
+            }
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(REVALIDATE);
+        if (nextCursor != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("sort", pageSort.param())
+                    .replaceQueryParam("size", pageSize)
+                    .replaceQueryParam("after", nextCursor)
+                    .build()
+                    .toUriString();
+            ok.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            ok.header("X-Next-Cursor", nextCursor);
+        }
+        return ok.body(items);
+    }
+
+    /**
+     * GET /api/products/search?q=...&limit=...
+     * Ranked search over name, description, manufacturer and category.
+     * @param q search text
+     * @param limit optional maximum results
+     * @return 200 with results in relevance order (empty list when nothing matches)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchResult>> search(@RequestParam(value = "q", required = false) String q,
+                                                     @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.search(q, limit));
+    }
+
+    /**
+     * GET /api/products/suggest?q=...&limit=...
+     * Prefix suggestions for the search box; whole-name and part number matches first.
+     * @param q what the user has typed so far
+     * @param limit optional maximum suggestions
+     * @return 200 with suggestions (empty list for blank input)
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam(value = "q", required = false) String q,
+                                                    @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(suggester.suggest(q, limit));
+    }
+
+    /**
+     * GET /api/products/facets
+     * Product counts (total and in stock) per category and per manufacturer.
+     * @return 200 with "categories" and "manufacturers" lists
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, List<FacetCount>>> facets() {
+        return ResponseEntity.ok(facetService.all());
+    }
+
+    /**
+     * GET /api/products/by-part/{partNumber}
+     * Return a single product by its unique part number (case-insensitive).
+     * @param partNumber part number
+     * @return 200 with product, or 404 if not found
+     */
+    @GetMapping("/by-part/{partNumber}")
+    public ResponseEntity<Product> getByPartNumber(@PathVariable String partNumber) {
+        return productService.findByPartNumber(partNumber)
+                .map(p -> ResponseEntity.ok().cacheControl(REVALIDATE).body(p))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/products/by-part?partNumbers=A,B,C
+     * Resolve many part numbers in one request.
+     * @param partNumbers part numbers (comma separated or repeated parameter)
+     * @return 200 with "found" (part number to product, in request order) and "missing",
+     *         or 400 when too many are requested
+     */
+    @GetMapping("/by-part")
+    public ResponseEntity<Map<String, Object>> getByPartNumbers(@RequestParam("partNumbers") List<String> partNumbers) {
+        Map<String, Product> found;
+        try {
+            found = productService.findAllByPartNumbers(partNumbers);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        List<String> missing = partNumbers.stream()
+                .filter(pn -> !found.containsKey(pn))
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("found", found);
+        body.put("missing", missing);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * GET /api/products?ids=1,2,3
+     * Resolve many ids in one request instead of one call per id. Cached products are
+     * served from memory and the rest are read with one IN query.
+     * @param ids product ids (comma separated or repeated parameter)
+     * @param request current request, used for the conditional GET check
+     * @return 200 with "found" (id to product, in request order) and "missing",
+     *         304 when the catalog is unchanged, or 400 when too many are requested
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<String, Object>> getByIds(@RequestParam("ids") List<Long> ids, WebRequest request) {
+        String etag = catalogVersion.listEtag("ids=" + ids);
+        if (request.checkNotModified(etag, catalogVersion.catalogLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return multiGet(ids);
+    }
+
+    /**
+     * POST /api/products/lookup
+     * Body variant of {@code ?ids=} for id lists too long for a URL, e.g. {@code [3, 1, 2]}.
+     * Read-only; nothing is changed.
+     * @param ids product ids as a JSON array
+     * @return 200 with "found" and "missing", or 400 when too many are requested
+     */
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> lookup(@RequestBody List<Long> ids) {
+        return multiGet(ids);
+    }
+
+    // Shared body of the two multi-get endpoints
+    private ResponseEntity<Map<String, Object>> multiGet(List<Long> ids) {
+        Map<Long, Product> found;
+        try {
+            found = productService.findAllByIds(ids);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        List<Long> missing = ids.stream()
+                .filter(id -> id != null && !found.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("found", found);
+        body.put("missing", missing);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body);
     }
 
     /**
      * GET /api/products/{id}
      * Return a single product by id.
      * @param id product identifier
-     * @return 200 with product, or 404 if not found
+     * @param request current request, used for the conditional GET check
+     * @return 200 with product, 304 when unchanged, or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable long id) {
+    public ResponseEntity<Product> getById(@PathVariable long id, WebRequest request) {
+        // Unknown ids have no stamp and fall through to the normal lookup
+        String etag = catalogVersion.productEtag(id);
+        if (etag != null && request.checkNotModified(etag, catalogVersion.productLastModified(id))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+
         // Look up the product by id
         Optional<Product> found = productService.findById(id);
 
         // Return 200 OK if found, otherwise 404 Not Found
-        return found.map(ResponseEntity::ok)
+        return found.map(p -> ResponseEntity.ok().cacheControl(REVALIDATE).body(p))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * PUT /api/products/{id}
+     * Replace a product's fields. The body must carry the {@code version} the client
+     * last read; the update only applies if nobody has saved the product since.
+     * Every field is required, with the same rules as the product edit form plus
+     * the column limits, so a partial body cannot null out or overflow a column.
+     * @param id product identifier
+     * @param body new product state including its version
+     * @return 200 with the saved product (new version), 400 with field errors,
+     *         404 if the product does not exist, or 409 with the current product on a
+     *         conflict (or an error when the part number belongs to another product)
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> update(@PathVariable long id, @RequestBody Product body) {
+        Map<String, String> errors = validate(body);
+        if (!errors.isEmpty()) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", "Invalid product");
+            error.put("fields", errors);
+            return ResponseEntity.badRequest().body(error);
+        }
+        body.setId(id);
+        try {
+            return ResponseEntity.ok(productService.update(body));
+        } catch (DuplicateKeyException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Part number " + body.getPartNumber() + " is used by another product"));
+        } catch (OptimisticLockingFailureException ex) {
+            // Hand back what is stored now so the client can merge and retry
+            return productService.findById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
                     .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Field checks for a PUT body: the edit form's required fields plus column limits.
+     * Text fields are trimmed in place.
+     * @param p request body
+     * @return field name to message, empty when the product is valid
+     */
+    private static Map<String, String> validate(Product p) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        p.setName(text(errors, "name", "Name", p.getName(), MAX_NAME));
+        p.setDescription(text(errors, "description", "Description", p.getDescription(), MAX_DESCRIPTION));
+        p.setManufacturer(text(errors, "manufacturer", "Manufacturer", p.getManufacturer(), MAX_MANUFACTURER));
+        p.setCategory(text(errors, "category", "Category", p.getCategory(), MAX_CATEGORY));
+        p.setPartNumber(text(errors, "partNumber", "Part number", p.getPartNumber(), MAX_PART_NUMBER));
+        if (p.getQuantity() < 0) {
+            errors.put("quantity", "Quantity must be 0 or more.");
+        }
+        BigDecimal price = p.getPrice();
+        if (price == null) {
+            errors.put("price", "Price is required.");
+        } else if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0 || price.scale() > 2) {
+            errors.put("price", "Price must be between 0.00 and " + MAX_PRICE + " with at most 2 decimals.");
+        }
+        if (p.getVersion() == null) {
+            errors.put("version", "Version is required; send the version you last read.");
+        }
+        return errors;
+    }
+
+    // Trimmed value, recording an error when it is blank or too long
+    private static String text(Map<String, String> errors, String field, String label, String value, int max) {
+        String v = value == null ? null : value.trim();
+        if (v == null || v.isEmpty()) {
+            errors.put(field, label + " is required.");
+        } else if (v.length() > max) {
+            errors.put(field, label + " must be at most " + max + " characters.");
+        }
+        return v;
+    }
+
+    /**
+     * GET /api/products/export?format=ndjson
+     * Stream every product as one JSON object per line.
+     * Rows are written as they come off the database cursor, so the full
+     * catalog is never held in memory.
+     * @param format export format; only "ndjson" is supported
+     * @param response servlet response to stream into
+     * @throws IOException if the client disconnects mid-stream
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        if (!"ndjson".equalsIgnoreCase(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        exportService.exportNdjson(response.getOutputStream());
     }
 }
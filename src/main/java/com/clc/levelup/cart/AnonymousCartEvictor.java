@@ -0,0 +1,79 @@
+package com.clc.levelup.cart;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes anonymous carts that have not changed within the TTL.
+ * Anonymous browsers rarely come back for a cart, so without this the store
+ * would keep every cart ever started by a visitor who never signed in.
+ * Signed-in users' carts are never evicted.
+ */
+@Component
+public class AnonymousCartEvictor {
+
+    private static final Logger log = LoggerFactory.getLogger(AnonymousCartEvictor.class);
+
+    private final CartStore store;
+    private final Duration ttl;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "anonymous-cart-evictor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param store cart store holding anonymous carts
+     * @param ttlHours how long an anonymous cart lives after its last change
+     * @param intervalMinutes how often expired carts are removed
+     */
+    public AnonymousCartEvictor(CartStore store,
+                                @Value("${levelup.cart.anonymous-ttl-hours:168}") long ttlHours,
+                                @Value("${levelup.cart.evict-interval-minutes:30}") long intervalMinutes) {
+        this.store = store;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        long every = Math.max(1, intervalMinutes);
+        timer.scheduleWithFixedDelay(this::evictExpired, every, every, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Remove expired anonymous carts now.
+     * Runs on the background schedule; public so it can be triggered directly.
+     * @return number of carts removed
+     */
+    public int evictExpired() {
+        try {
+            int evicted = store.evictIdle(CartService.ANONYMOUS_PREFIX, ttl);
+            if (evicted > 0) {
+                log.info("Evicted {} anonymous carts idle for more than {}", evicted, ttl);
+            }
+            return evicted;
+        } catch (RuntimeException ex) {
+            // Keep the schedule alive; the next run retries
+            log.warn("Anonymous cart eviction failed: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Time an anonymous cart lives after its last change; the cart cookie uses the same lifetime.
+     * @return time to live
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,145 @@
+package com.clc.levelup.cart;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One shopping cart: its lines in first-added order plus running totals.
+ * <p>
+ * Immutable. Every change returns a new cart whose total, line count and
+ * item count are the old ones adjusted by the difference, so summarizing even
+ * a cart of hundreds of lines is O(1). A cart can be handed to any number of
+ * threads; stores publish a new value with a compare-and-set (or under a row
+ * lock) instead of changing a shared one. {@link #getItems()} is a read-only
+ * view of the lines, not a copy.
+ * </p>
+ */
+public final class Cart {
+
+    /** The cart with no lines. */
+    public static final Cart EMPTY = new Cart(new LinkedHashMap<>(), BigDecimal.ZERO, 0);
+
+    private final Map<Long, CartItem> lines;
+    private final Collection<CartItem> view;
+    private final BigDecimal total;
+    private final int itemCount;
+
+    private Cart(LinkedHashMap<Long, CartItem> lines, BigDecimal total, int itemCount) {
+        this.lines = lines;
+        this.view = Collections.unmodifiableCollection(lines.values());
+        this.total = total;
+        this.itemCount = itemCount;
+    }
+
+    /**
+     * Build a cart from stored lines.
+     * @param items lines in first-added order
+     * @return cart holding those lines
+     */
+    public static Cart of(Iterable<CartItem> items) {
+        Cart cart = EMPTY;
+        for (CartItem ci : items) {
+            cart = cart.with(ci);
+        }
+        return cart;
+    }
+
+    /**
+     * Lines in the order they were first added (read-only view).
+     * @return cart lines
+     */
+    public Collection<CartItem> getItems() {
+        return view;
+    }
+
+    /**
+     * One line by product.
+     * @param productId product identifier
+     * @return the line, or empty when the product is not in the cart
+     */
+    public Optional<CartItem> getItem(long productId) {
+        return Optional.ofNullable(lines.get(productId));
+    }
+
+    /** @return sum of line subtotals */
+    public BigDecimal getTotal() { return total; }
+
+    /** @return number of distinct products */
+    public int getLineCount() { return lines.size(); }
+
+    /** @return sum of quantities */
+    public int getItemCount() { return itemCount; }
+
+    /** @return true when the cart has no lines */
+    public boolean isEmpty() { return lines.isEmpty(); }
+
+    /**
+     * Totals only, detached from the lines.
+     * @return summary of this cart
+     */
+    public CartSummary summary() {
+        return new CartSummary(lines.size(), itemCount, total);
+    }
+
+    /**
+     * Insert or replace the line for the item's product.
+     * @param item line to store
+     * @return new cart
+     */
+    public Cart with(CartItem item) {
+        LinkedHashMap<Long, CartItem> next = new LinkedHashMap<>(lines);
+        CartItem old = next.put(item.getProductId(), item);
+        BigDecimal t = total.add(item.getSubtotal());
+        int count = itemCount + item.getQuantity();
+        if (old != null) {
+            t = t.subtract(old.getSubtotal());
+            count -= old.getQuantity();
+        }
+        return new Cart(next, t, count);
+    }
+
+    /**
+     * Add an item, or raise the quantity of the line already holding its product
+     * (up to {@link CartItem#MAX_QUANTITY}).
+     * @param item item to add
+     * @return new cart
+     */
+    public Cart plus(CartItem item) {
+        CartItem existing = lines.get(item.getProductId());
+        return with(existing == null ? item : existing.plusQuantity(item.getQuantity()));
+    }
+
+    /**
+     * Set the quantity of an existing line; unknown products are ignored.
+     * @param productId product identifier
+     * @param quantity new quantity (clamped to 1..{@link CartItem#MAX_QUANTITY})
+     * @return new cart, or this cart when nothing changed
+     */
+    public Cart withQuantity(long productId, int quantity) {
+        CartItem existing = lines.get(productId);
+        if (existing == null) {
+            return this;
+        }
+        CartItem updated = existing.withQuantity(quantity);
+        return updated == existing ? this : with(updated);
+    }
+
+    /**
+     * Remove one line.
+     * @param productId product identifier
+     * @return new cart, or this cart when the product was not in it
+     */
+    public Cart without(long productId) {
+        CartItem old = lines.get(productId);
+        if (old == null) {
+            return this;
+        }
+        LinkedHashMap<Long, CartItem> next = new LinkedHashMap<>(lines);
+        next.remove(productId);
+        return new Cart(next, total.subtract(old.getSubtotal()), itemCount - old.getQuantity());
+    }
+}
@@ -0,0 +1,28 @@
+package com.clc.levelup.cart;
+
+import java.util.List;
+
+/**
+ * Outcome of adding several products to a cart in one step.
+ */
+public class CartBatchResult {
+
+    private final Cart cart;
+    private final List<CartItem> lines;
+    private final List<Long> missing;
+
+    CartBatchResult(Cart cart, List<CartItem> lines, List<Long> missing) {
+        this.cart = cart;
+        this.lines = List.copyOf(lines);
+        this.missing = List.copyOf(missing);
+    }
+
+    /** @return cart after the change */
+    public Cart getCart() { return cart; }
+
+    /** @return cart lines of the requested products after the change, in request order */
+    public List<CartItem> getLines() { return lines; }
+
+    /** @return requested product ids that do not exist (nothing was added for them) */
+    public List<Long> getMissing() { return missing; }
+}
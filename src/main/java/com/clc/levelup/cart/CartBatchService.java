@@ -0,0 +1,89 @@
+package com.clc.levelup.cart;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductService;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds many products to a cart in one step, e.g. "buy again" for a past
+ * order or a whole bundle.
+ * All products are resolved with one {@link ProductService#findAllByIds}
+ * call (cache first, one {@code IN} query for the rest), and every line is
+ * applied in a single atomic cart update, so the cart never shows half a batch.
+ */
+@Service
+public class CartBatchService {
+
+    private final CartService carts;
+    private final ProductService products;
+
+    /**
+     * Inject collaborators.
+     * @param carts cart service
+     * @param products product lookup
+     */
+    public CartBatchService(CartService carts, ProductService products) {
+        this.carts = carts;
+        this.products = products;
+    }
+
+    /**
+     * Add or increment every requested product.
+     * Repeated product ids are merged; unknown ids are skipped and reported.
+     * @param cartKey cart owner key
+     * @param lines product ids with quantities (quantities below 1 count as 1)
+     * @return cart after the change, the affected lines and the unknown ids
+     * @throws IllegalArgumentException if the list is empty, too long, has a line without a product id
+     *         or a quantity above {@link CartItem#MAX_QUANTITY}
+     */
+    public CartBatchResult addAll(String cartKey, List<CartLineRequest> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("No products to add");
+        }
+        if (lines.size() > ProductService.MAX_ID_BATCH) {
+            throw new IllegalArgumentException("At most " + ProductService.MAX_ID_BATCH + " products per request");
+        }
+        Map<Long, Integer> wanted = new LinkedHashMap<>();
+        for (CartLineRequest line : lines) {
+            if (line == null || line.getProductId() == null) {
+                throw new IllegalArgumentException("Every line needs a productId");
+            }
+            if (line.getQuantity() > CartItem.MAX_QUANTITY) {
+                throw new IllegalArgumentException("quantity must be at most " + CartItem.MAX_QUANTITY);
+            }
+            // Both sides are at most MAX_QUANTITY, so the sum cannot overflow; CartItem caps it
+            wanted.merge(line.getProductId(), Math.max(1, line.getQuantity()), Integer::sum);
+        }
+
+        // One lookup for the whole batch, outside the cart's write transaction
+        Map<Long, Product> found = products.findAllByIds(wanted.keySet());
+        List<CartItem> items = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        wanted.forEach((id, qty) -> {
+            Product p = found.get(id);
+            if (p == null) {
+                missing.add(id);
+            } else {
+                items.add(new CartItem(p.getId(), p.getName(), p.getPrice(), qty));
+            }
+        });
+
+        Cart cart = items.isEmpty() ? carts.getCart(cartKey) : carts.update(cartKey, c -> {
+            Cart next = c;
+            for (CartItem item : items) {
+                next = next.plus(item);
+            }
+            return next;
+        });
+        List<CartItem> affected = new ArrayList<>();
+        for (CartItem item : items) {
+            cart.getItem(item.getProductId()).ifPresent(affected::add);
+        }
+        return new CartBatchResult(cart, affected, missing);
+    }
+}
@@ -6,27 +6,33 @@ import java.math.BigDecimal;
  * Represents a single product line within the shopping cart.
  * Each CartItem tracks the product ID, name, unit price, and quantity.
  * Used by CartService to calculate totals and manage cart contents.
+ * Immutable: a quantity change produces a new line ({@link #withQuantity}),
+ * so lines can be shared between threads and cart snapshots without copying.
+ * Quantities are kept between 1 and {@link #MAX_QUANTITY}.
  */
 public class CartItem {
 
-    private long productId;
-    private String name;
-    private BigDecimal price; // Unit price of the product
-    private int quantity;
+    /** Largest quantity one line can hold; requests above it are rejected by the cart API. */
+    public static final int MAX_QUANTITY = 999;
+
+    private final long productId;
+    private final String name;
+    private final BigDecimal price; // Unit price of the product
+    private final int quantity;
 
     /**
      * Create a new cart line item.
      * @param productId unique product identifier
      * @param name product name
      * @param price unit price
-     * @param quantity quantity (values below 1 are treated as 1)
+     * @param quantity quantity (values below 1 are treated as 1, above {@link #MAX_QUANTITY} as the maximum)
      */
     public CartItem(long productId, String name, BigDecimal price, int quantity) {
         this.productId = productId;
         this.name = name;
         this.price = price;
         // Guard to prevent invalid quantity
-        this.quantity = Math.max(1, quantity);
+        this.quantity = clamp(quantity);
     }
 
     /**
@@ -62,13 +68,29 @@ public class CartItem {
     }
 
     /**
-     * Update the quantity for this item.
-     * Quantities less than one default to one.
+     * Same line with a different quantity.
+     * Quantities less than one default to one; larger than {@link #MAX_QUANTITY} to the maximum.
      * @param quantity new quantity
+     * @return new CartItem (this one when the quantity is unchanged)
      */
-    public void setQuantity(int quantity) {
+    public CartItem withQuantity(int quantity) {
         // Ensure at least one item remains in the cart
-        this.quantity = Math.max(1, quantity);
+        int q = clamp(quantity);
+        return q == this.quantity ? this : new CartItem(productId, name, price, q);
+    }
+
+    /**
+     * This line with more of the same product, capped at {@link #MAX_QUANTITY}.
+     * @param more quantity to add
+     * @return new CartItem (this one when the line is already full)
+     */
+    public CartItem plusQuantity(int more) {
+        // Widen first so two large quantities cannot wrap around
+        return withQuantity((int) Math.min(MAX_QUANTITY, (long) quantity + more));
+    }
+
+    private static int clamp(int quantity) {
+        return Math.min(MAX_QUANTITY, Math.max(1, quantity));
     }
 
     /**
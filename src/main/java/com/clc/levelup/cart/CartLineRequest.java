@@ -0,0 +1,22 @@
+package com.clc.levelup.cart;
+
+/**
+ * Request body naming one product and a quantity, e.g. {@code {"productId":7,"quantity":2}}.
+ */
+public class CartLineRequest {
+
+    private Long productId;
+    private int quantity = 1;
+
+    /** @return product to add or change */
+    public Long getProductId() { return productId; }
+
+    /** @param productId product to add or change */
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    /** @return quantity (defaults to 1) */
+    public int getQuantity() { return quantity; }
+
+    /** @param quantity quantity to add or set */
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -1,93 +1,201 @@
 package com.clc.levelup.cart;
 
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
+import com.clc.levelup.config.SessionScopedTransactional;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.WebApplicationContext;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.UnaryOperator;
 
 /**
- * Manages the user's shopping cart for the current web session.
- * Each session has its own CartService instance.
- * Provides methods to add, update, and remove CartItem objects
- * and to calculate the running total for checkout.
+ * Manages shopping carts.
+ * Carts live in a {@link CartStore} keyed by owner rather than in the HTTP
+ * session, so one instance serves every user and any node can serve any request.
+ * Provides methods to add, update, and remove CartItem objects.
+ * Each cart keeps a running total, line count and item count, so
+ * summaries never walk the lines.
+ * Carts are immutable values and every change goes through
+ * {@link CartStore#update}, so requests from several tabs or XHR calls on the
+ * same cart apply one after another instead of overwriting each other.
+ * Cart writes run under {@link SessionScopedTransactional}: they keep the
+ * owner's reads on the primary without holding every other reader there.
  */
 @Service
-@Scope(value = WebApplicationContext.SCOPE_SESSION, proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class CartService {
 
-    // Key: productId, Value: corresponding CartItem
-    private final Map<Long, CartItem> items = new LinkedHashMap<>();
+    private final CartStore store;
+
+    /**
+     * Inject the configured cart store.
+     * @param store cart storage (memory or JDBC, per levelup.cart.store)
+     */
+    public CartService(CartStore store) {
+        this.store = store;
+    }
+
+    /** Key prefix of carts owned by an anonymous browser (cookie id). */
+    public static final String ANONYMOUS_PREFIX = "anon:";
+
+    /**
+     * Cart key for a signed-in user.
+     * @param username login name
+     * @return stable key for that user's cart
+     */
+    public static String userKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cart key for an anonymous browser.
+     * @param cookieId random id from the browser's cart cookie
+     * @return key for that browser's cart
+     */
+    public static String anonymousKey(String cookieId) {
+        return ANONYMOUS_PREFIX + cookieId;
+    }
+
+    /**
+     * Move every line of one cart into another, e.g. an anonymous cart into
+     * the user's cart at login. Quantities of products in both carts add up.
+     * The source is locked and emptied first, and the lines read under that
+     * lock are then added to the target in the same transaction, so a change
+     * racing on the source is either moved or waits until the merge commits;
+     * it is never lost or counted twice.
+     * @param fromKey cart to empty
+     * @param toKey cart to add to
+     * @return number of lines moved (0 when the source was empty)
+     */
+    @SessionScopedTransactional
+    public int merge(String fromKey, String toKey) {
+        if (fromKey.equals(toKey)) {
+            return 0;
+        }
+        // The change may be retried, so keep only the lines from the run that won
+        List<Cart> taken = new ArrayList<>(List.of(Cart.EMPTY));
+        store.update(fromKey, cart -> {
+            taken.set(0, cart);
+            return Cart.EMPTY;
+        });
+        Cart from = taken.get(0);
+        if (from.isEmpty()) {
+            return 0;
+        }
+        store.update(toKey, cart -> {
+            Cart next = cart;
+            for (CartItem item : from.getItems()) {
+                next = next.plus(item);
+            }
+            return next;
+        });
+        return from.getLineCount();
+    }
 
     /**
      * Add a new product to the cart or increase its quantity if it already exists.
+     * @param cartKey cart owner key
      * @param item item to add or increment
+     * @return cart after the change
      */
-    public void addOrIncrement(CartItem item) {
-        CartItem existing = items.get(item.getProductId());
-        if (existing == null) {
-            // New item — add it to the map
-            items.put(item.getProductId(), item);
-        } else {
-            // Existing item — just increase quantity
-            existing.setQuantity(existing.getQuantity() + item.getQuantity());
-        }
+    @SessionScopedTransactional
+    public Cart addOrIncrement(String cartKey, CartItem item) {
+        // Read and increment in one atomic step, so parallel adds are never lost
+        return store.update(cartKey, cart -> cart.plus(item));
     }
 
     /**
      * Update the quantity for a specific product line.
+     * @param cartKey cart owner key
      * @param productId product identifier
      * @param quantity new quantity value
+     * @return cart after the change
      */
-    public void updateQuantity(long productId, int quantity) {
-        CartItem existing = items.get(productId);
-        if (existing != null) {
-            existing.setQuantity(quantity);
-        }
+    @SessionScopedTransactional
+    public Cart updateQuantity(String cartKey, long productId, int quantity) {
+        return store.update(cartKey, cart -> cart.withQuantity(productId, quantity));
     }
 
     /**
      * Remove a product line from the cart.
+     * @param cartKey cart owner key
      * @param productId product identifier to remove
+     * @return cart after the change
+     */
+    @SessionScopedTransactional
+    public Cart remove(String cartKey, long productId) {
+        return store.update(cartKey, cart -> cart.without(productId));
+    }
+
+    /**
+     * Apply an arbitrary change to a cart atomically.
+     * The function may run more than once when another request changed the
+     * cart at the same time, so it must not have side effects.
+     * @param cartKey cart owner key
+     * @param change function from the current cart to the new one
+     * @return cart after the change
+     */
+    @SessionScopedTransactional
+    public Cart update(String cartKey, UnaryOperator<Cart> change) {
+        return store.update(cartKey, change);
+    }
+
+    /**
+     * Load a cart with its running totals.
+     * Read it once per request and use its getters; the totals are not recomputed.
+     * @param cartKey cart owner key
+     * @return immutable cart snapshot
+     */
+    @Transactional(readOnly = true)
+    public Cart getCart(String cartKey) {
+        return store.cart(cartKey);
+    }
+
+    /**
+     * Line count, item count and total without loading the lines.
+     * @param cartKey cart owner key
+     * @return cart summary
      */
-    public void remove(long productId) {
-        items.remove(productId);
+    @Transactional(readOnly = true)
+    public CartSummary getSummary(String cartKey) {
+        return store.summary(cartKey);
     }
 
     /**
-     * Get a list of all CartItems currently in the cart.
-     * @return list of CartItem objects
+     * Get all CartItems currently in the cart.
+     * @param cartKey cart owner key
+     * @return read-only view of the cart lines
      */
-    public List<CartItem> getItems() {
-        // Return a copy to avoid exposing internal map
-        return new ArrayList<>(items.values());
+    @Transactional(readOnly = true)
+    public Collection<CartItem> getItems(String cartKey) {
+        return store.cart(cartKey).getItems();
     }
 
     /**
-     * Calculate the total price for all items in the cart.
+     * Total price for all items in the cart (maintained as lines change).
+     * @param cartKey cart owner key
      * @return total amount
      */
-    public BigDecimal getTotal() {
-        // Sum all subtotals using BigDecimal for accurate math
-        return items.values().stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    @Transactional(readOnly = true)
+    public BigDecimal getTotal(String cartKey) {
+        return store.summary(cartKey).getTotal();
     }
 
     /**
      * Check if the cart is empty.
+     * @param cartKey cart owner key
      * @return true if empty, false otherwise
      */
-    public boolean isEmpty() {
-        return items.isEmpty();
+    @Transactional(readOnly = true)
+    public boolean isEmpty(String cartKey) {
+        return store.summary(cartKey).isEmpty();
     }
 
     /**
      * Clear all items from the cart.
+     * @param cartKey cart owner key
      */
-    public void clear() {
-        items.clear();
+    @SessionScopedTransactional
+    public void clear(String cartKey) {
+        store.update(cartKey, cart -> Cart.EMPTY);
     }
 }
@@ -0,0 +1,52 @@
+package com.clc.levelup.cart;
+
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage for shopping carts, keyed by an owner key (see {@link CartService#userKey}).
+ * <p>
+ * Keeping carts out of the HTTP session lets any web node serve any request.
+ * The implementation is chosen with {@code levelup.cart.store}:
+ * {@code memory} ({@link InMemoryCartStore}, single node, lost on restart) or
+ * {@code jdbc} ({@link JdbcCartStore}, the {@code carts}/{@code cart_items} tables).
+ * </p>
+ * Carts are immutable values. Every change goes through {@link #update}, which
+ * applies it atomically per cart, so parallel requests from several tabs never
+ * lose an increment.
+ */
+public interface CartStore {
+
+    /**
+     * Current value of a cart: lines in first-added order plus totals.
+     * @param cartKey cart owner key
+     * @return cart, {@link Cart#EMPTY} when it does not exist
+     */
+    Cart cart(String cartKey);
+
+    /**
+     * Totals of a cart without loading its lines.
+     * @param cartKey cart owner key
+     * @return summary, {@link CartSummary#EMPTY} when the cart does not exist
+     */
+    CartSummary summary(String cartKey);
+
+    /**
+     * Atomically replace a cart with {@code change} applied to its current value.
+     * The function may be called more than once when another writer got there
+     * first, so it must not have side effects.
+     * @param cartKey cart owner key
+     * @param change pure function from the current cart to the new one
+     * @return the cart as stored
+     */
+    Cart update(String cartKey, UnaryOperator<Cart> change);
+
+    /**
+     * Delete carts under a key prefix that have not changed for a while,
+     * e.g. abandoned anonymous carts.
+     * @param keyPrefix only keys starting with this are considered
+     * @param idle how long a cart must have gone unchanged
+     * @return number of carts deleted
+     */
+    int evictIdle(String keyPrefix, Duration idle);
+}
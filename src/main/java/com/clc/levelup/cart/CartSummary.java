@@ -0,0 +1,39 @@
+package com.clc.levelup.cart;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals of one cart without its lines, e.g. for the header badge.
+ */
+public class CartSummary {
+
+    /** Summary of a cart that does not exist. */
+    public static final CartSummary EMPTY = new CartSummary(0, 0, BigDecimal.ZERO);
+
+    private final int lineCount;
+    private final int itemCount;
+    private final BigDecimal total;
+
+    /**
+     * @param lineCount number of distinct products
+     * @param itemCount sum of quantities
+     * @param total sum of line subtotals
+     */
+    public CartSummary(int lineCount, int itemCount, BigDecimal total) {
+        this.lineCount = lineCount;
+        this.itemCount = itemCount;
+        this.total = total;
+    }
+
+    /** @return number of distinct products */
+    public int getLineCount() { return lineCount; }
+
+    /** @return sum of quantities */
+    public int getItemCount() { return itemCount; }
+
+    /** @return sum of line subtotals */
+    public BigDecimal getTotal() { return total; }
+
+    /** @return true when the cart has no lines */
+    public boolean isEmpty() { return lineCount == 0; }
+}
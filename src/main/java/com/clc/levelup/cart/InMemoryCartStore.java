@@ -0,0 +1,86 @@
+package com.clc.levelup.cart;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cart store held in this JVM ({@code levelup.cart.store=memory}).
+ * Suitable for a single node and for tests; carts are lost on restart.
+ * <p>
+ * Lock-free: a change reads the current immutable cart, builds the next one
+ * and publishes it with a compare-and-set on the map entry, retrying if
+ * another request replaced the cart in between. Readers get the stored value
+ * itself, with no copy and no lock.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "levelup.cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+    private final ConcurrentHashMap<String, Entry> carts = new ConcurrentHashMap<>();
+
+    @Override
+    public Cart cart(String cartKey) {
+        Entry entry = carts.get(cartKey);
+        return entry == null ? Cart.EMPTY : entry.cart;
+    }
+
+    @Override
+    public CartSummary summary(String cartKey) {
+        Entry entry = carts.get(cartKey);
+        return entry == null ? CartSummary.EMPTY : entry.cart.summary();
+    }
+
+    @Override
+    public Cart update(String cartKey, UnaryOperator<Cart> change) {
+        while (true) {
+            Entry current = carts.get(cartKey);
+            Cart before = current == null ? Cart.EMPTY : current.cart;
+            Cart next = change.apply(before);
+            if (next == before || (current == null && next.isEmpty())) {
+                return next;
+            }
+            boolean swapped;
+            if (current == null) {
+                swapped = carts.putIfAbsent(cartKey, new Entry(next)) == null;
+            } else if (next.isEmpty()) {
+                // Empty carts are dropped rather than kept as entries
+                swapped = carts.remove(cartKey, current);
+            } else {
+                swapped = carts.replace(cartKey, current, new Entry(next));
+            }
+            if (swapped) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public int evictIdle(String keyPrefix, Duration idle) {
+        long cutoff = System.nanoTime() - idle.toNanos();
+        int evicted = 0;
+        for (Map.Entry<String, Entry> e : carts.entrySet()) {
+            // Remove by key and entry, so a cart changed meanwhile survives
+            if (e.getKey().startsWith(keyPrefix) && e.getValue().changedNanos - cutoff <= 0
+                    && carts.remove(e.getKey(), e.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /** A stored cart and when it last changed; replaced as a whole on every change. */
+    private static final class Entry {
+        final Cart cart;
+        final long changedNanos = System.nanoTime();
+
+        Entry(Cart cart) {
+            this.cart = cart;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.clc.levelup.cart;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.clc.levelup.config.DataSourceConfig;
+
+/**
+ * Cart store backed by the {@code carts} and {@code cart_items} tables
+ * ({@code levelup.cart.store=jdbc}, the default).
+ * <p>
+ * {@link #update} first touches the cart's {@code carts} row, which takes
+ * InnoDB's row lock on it. Concurrent changes to the same cart from other
+ * requests or nodes queue behind it, while other carts proceed. The lines are
+ * then read with {@code FOR UPDATE}, so a transaction that already read the
+ * cart still builds on the last committed change. The change itself runs on
+ * the immutable {@link Cart} in memory.
+ * </p>
+ * Writes are coalesced per transaction: the first update loads the cart and
+ * later updates in the same transaction build on the in-memory value. Just
+ * before commit the difference from the loaded cart is written as one DELETE
+ * batch, one upsert batch and one totals update taken from the cart's
+ * running totals. Reads inside the transaction see the pending value.
+ */
+@Component
+@ConditionalOnProperty(name = "levelup.cart.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcCartStore implements CartStore {
+
+    private static final String SELECT_SQL =
+            "SELECT product_id, name, price, quantity FROM cart_items WHERE cart_key = ? ORDER BY id";
+
+    // A locking read sees the latest committed lines, not the transaction's
+    // REPEATABLE READ snapshot, which may predate the last writer's commit
+    private static final String SELECT_LOCKED_SQL = SELECT_SQL + " FOR UPDATE";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO cart_items (cart_key, product_id, name, price, quantity) VALUES (?, ?, ?, ?, ?) "
+          + "ON DUPLICATE KEY UPDATE name = VALUES(name), price = VALUES(price), quantity = VALUES(quantity)";
+
+    // Creates the row if needed and, either way, holds its lock until commit
+    private static final String LOCK_SQL =
+            "INSERT INTO carts (cart_key) VALUES (?) ON DUPLICATE KEY UPDATE updated_at = CURRENT_TIMESTAMP";
+
+    private static final String SUMMARY_SQL =
+            "SELECT line_count, item_count, total FROM carts WHERE cart_key = ?";
+
+    private static final String TOTALS_SQL =
+            "UPDATE carts SET line_count = ?, item_count = ?, total = ? WHERE cart_key = ?";
+
+    private static final int EVICT_BATCH = 1000;
+
+    // Oldest carts first, a bounded batch at a time so row locks stay short
+    private static final String EVICT_SQL =
+            "DELETE FROM carts WHERE cart_key LIKE ? AND updated_at < CURRENT_TIMESTAMP - INTERVAL ? SECOND "
+          + "ORDER BY updated_at LIMIT " + EVICT_BATCH;
+
+    private static final RowMapper<CartItem> ROW = (rs, n) -> new CartItem(
+            rs.getLong("product_id"), rs.getString("name"), rs.getBigDecimal("price"), rs.getInt("quantity"));
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    /**
+     * @param jdbc JdbcTemplate on the application DataSource
+     * @param txManager session-scoped manager, used to open a transaction when a caller has none
+     */
+    public JdbcCartStore(JdbcTemplate jdbc,
+                         @Qualifier(DataSourceConfig.SESSION_TX_MANAGER) PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    @Override
+    public Cart cart(String cartKey) {
+        Pending pending = pending(cartKey);
+        return pending != null ? pending.current : load(cartKey);
+    }
+
+    @Override
+    public CartSummary summary(String cartKey) {
+        Pending pending = pending(cartKey);
+        if (pending != null) {
+            return pending.current.summary();
+        }
+        return jdbc.query(SUMMARY_SQL,
+                (rs, n) -> new CartSummary(rs.getInt("line_count"), rs.getInt("item_count"), rs.getBigDecimal("total")),
+                cartKey).stream().findFirst().orElse(CartSummary.EMPTY);
+    }
+
+    @Override
+    public Cart update(String cartKey, UnaryOperator<Cart> change) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return tx.execute(status -> update(cartKey, change));
+        }
+        Pending pending = pending(cartKey);
+        if (pending == null) {
+            jdbc.update(LOCK_SQL, cartKey);
+            pending = bind(cartKey, Cart.of(jdbc.query(SELECT_LOCKED_SQL, ROW, cartKey)));
+        }
+        pending.current = change.apply(pending.current);
+        return pending.current;
+    }
+
+    @Override
+    public int evictIdle(String keyPrefix, Duration idle) {
+        // cart_items rows go with their cart (ON DELETE CASCADE); each batch commits on its own
+        String pattern = keyPrefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbc.update(EVICT_SQL, pattern, idle.getSeconds());
+            total += deleted;
+        } while (deleted == EVICT_BATCH);
+        return total;
+    }
+
+    private Cart load(String cartKey) {
+        return Cart.of(jdbc.query(SELECT_SQL, ROW, cartKey));
+    }
+
+    /**
+     * Change set for one cart in the current transaction, or null.
+     */
+    @SuppressWarnings("unchecked")
+    private Pending pending(String cartKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, Pending> bound = (Map<String, Pending>) TransactionSynchronizationManager.getResource(this);
+        return bound == null ? null : bound.get(cartKey);
+    }
+
+    /**
+     * Start tracking a locked cart in the current transaction; the first cart
+     * also registers the before-commit flush.
+     */
+    @SuppressWarnings("unchecked")
+    private Pending bind(String cartKey, Cart loaded) {
+        Map<String, Pending> bound = (Map<String, Pending>) TransactionSynchronizationManager.getResource(this);
+        if (bound == null) {
+            Map<String, Pending> fresh = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, fresh);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    fresh.forEach(JdbcCartStore.this::flush);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(JdbcCartStore.this);
+                }
+            });
+            bound = fresh;
+        }
+        Pending p = new Pending(loaded);
+        bound.put(cartKey, p);
+        return p;
+    }
+
+    // Write the difference between the loaded and the final cart
+    private void flush(String cartKey, Pending pending) {
+        Cart before = pending.loaded;
+        Cart after = pending.current;
+        if (after.isEmpty()) {
+            // cart_items rows go with it (ON DELETE CASCADE)
+            jdbc.update("DELETE FROM carts WHERE cart_key = ?", cartKey);
+            return;
+        }
+        List<Object[]> removes = new ArrayList<>();
+        for (CartItem old : before.getItems()) {
+            if (after.getItem(old.getProductId()).isEmpty()) {
+                removes.add(new Object[] { cartKey, old.getProductId() });
+            }
+        }
+        List<Object[]> upserts = new ArrayList<>();
+        for (CartItem ci : after.getItems()) {
+            // Lines are immutable, so an unchanged line is the very same object
+            if (before.getItem(ci.getProductId()).orElse(null) != ci) {
+                upserts.add(new Object[] { cartKey, ci.getProductId(), ci.getName(), ci.getPrice(), ci.getQuantity() });
+            }
+        }
+        if (!removes.isEmpty()) {
+            jdbc.batchUpdate("DELETE FROM cart_items WHERE cart_key = ? AND product_id = ?", removes);
+        }
+        if (!upserts.isEmpty()) {
+            jdbc.batchUpdate(UPSERT_SQL, upserts);
+        }
+        jdbc.update(TOTALS_SQL, after.getLineCount(), after.getItemCount(), after.getTotal(), cartKey);
+    }
+
+    /** A locked cart: the value loaded from the tables and the value to write back. */
+    private static final class Pending {
+        final Cart loaded;
+        Cart current;
+
+        Pending(Cart loaded) {
+            this.loaded = loaded;
+            this.current = loaded;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.clc.levelup.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Builds the application DataSource: the {@code spring.datasource} primary pool plus
+ * optional read replicas listed in {@code levelup.datasource.replica-urls}.
+ * With no replicas configured every connection goes to the primary, as before.
+ * Also declares the transaction managers: the default one and the
+ * {@link SessionScopedTransactionManager} used for cart writes.
+ */
+@Configuration
+public class DataSourceConfig {
+
+  /** Bean name of the {@link SessionScopedTransactionManager}. */
+  public static final String SESSION_TX_MANAGER = "sessionTransactionManager";
+
+  /**
+   * Primary and replica pools behind the read-only router.
+   * @param props standard spring.datasource settings (primary)
+   * @param env environment, used to apply spring.datasource.hikari.* to every pool
+   * @param replicaUrls comma-separated replica JDBC URLs; empty for none
+   * @param replicaUsername replica user (defaults to the primary's)
+   * @param replicaPassword replica password (defaults to the primary's)
+   * @param healthCheckSeconds interval between replica health probes
+   * @param lagAllowanceMillis how long after any write reads stay on the primary
+   * @param replicaTimeoutMillis how long a read waits for a replica connection before falling back
+   * @return routing data source (closed with the context)
+   */
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(
+      DataSourceProperties props, Environment env,
+      @Value("${levelup.datasource.replica-urls:}") List<String> replicaUrls,
+      @Value("${levelup.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+      @Value("${levelup.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+      @Value("${levelup.datasource.health-check-seconds:10}") long healthCheckSeconds,
+      @Value("${levelup.datasource.replica-lag-millis:1000}") long lagAllowanceMillis,
+      @Value("${levelup.datasource.replica-timeout-millis:2000}") long replicaTimeoutMillis) {
+
+    HikariDataSource primary = props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+
+    List<DataSource> replicas = new ArrayList<>();
+    for (String url : replicaUrls) {
+      if (url.isBlank()) {
+        continue;
+      }
+      HikariDataSource replica = new HikariDataSource();
+      Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+      replica.setPoolName("replica-" + replicas.size());
+      replica.setJdbcUrl(url.trim());
+      replica.setUsername(replicaUsername);
+      replica.setPassword(replicaPassword);
+      replica.setReadOnly(true);
+      // Fail over quickly instead of holding the request for the primary's full timeout
+      replica.setConnectionTimeout(replicaTimeoutMillis);
+      // Do not block startup on a replica that is down; the health check admits it later
+      replica.setInitializationFailTimeout(-1);
+      replicas.add(replica);
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, healthCheckSeconds, lagAllowanceMillis);
+  }
+
+  /**
+   * The DataSource every JdbcTemplate, repository and transaction manager uses.
+   * The lazy proxy delays fetching a real connection until the first statement,
+   * after the transaction's read-only flag is known.
+   * @param routing read-only router
+   * @return lazily connecting proxy
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routing) {
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  /**
+   * Default transaction manager, declared here because a second manager bean
+   * switches off Boot's auto-configured one.
+   * @param dataSource application DataSource
+   * @param customizers spring.transaction.* settings
+   * @return manager used by plain {@code @Transactional}
+   */
+  @Bean
+  @Primary
+  public JdbcTransactionManager transactionManager(DataSource dataSource,
+                                                   ObjectProvider<TransactionManagerCustomizers> customizers) {
+    JdbcTransactionManager manager = new JdbcTransactionManager(dataSource);
+    customizers.ifAvailable(c -> c.customize(manager));
+    return manager;
+  }
+
+  /**
+   * Manager for writes that only touch one visitor's rows (see {@link SessionScopedTransactional}).
+   * @param dataSource application DataSource
+   * @param customizers spring.transaction.* settings
+   * @return session-scoped manager
+   */
+  @Bean(SESSION_TX_MANAGER)
+  public SessionScopedTransactionManager sessionTransactionManager(DataSource dataSource,
+                                                                   ObjectProvider<TransactionManagerCustomizers> customizers) {
+    SessionScopedTransactionManager manager = new SessionScopedTransactionManager(dataSource);
+    customizers.ifAvailable(c -> c.customize(manager));
+    return manager;
+  }
+}
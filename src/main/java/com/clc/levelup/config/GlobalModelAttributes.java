@@ -1,6 +1,10 @@
 package com.clc.levelup.config;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import com.clc.levelup.cart.CartService;
+import com.clc.levelup.web.CartKeyResolver;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
@@ -8,10 +12,25 @@ import org.springframework.web.bind.annotation.ModelAttribute;
  * Provides shared model attributes available across all MVC views.
  * Enables Thymeleaf templates to access user-related data
  * such as the current username and login status.
+ * Update: limited to the page controllers; REST handlers never render a model,
+ * so they should not pay for these lookups (e.g. the cart badge query).
  */
-@ControllerAdvice
+@ControllerAdvice(basePackages = "com.clc.levelup.controllers")
 public class GlobalModelAttributes {
 
+  private final CartService carts;
+  private final CartKeyResolver cartKeys;
+
+  /**
+   * Inject the cart service used for the header badge.
+   * @param carts cart service
+   * @param cartKeys maps the request to the user's or the anonymous browser's cart
+   */
+  public GlobalModelAttributes(CartService carts, CartKeyResolver cartKeys) {
+    this.carts = carts;
+    this.cartKeys = cartKeys;
+  }
+
   /**
    * Expose the logged-in username under the model name "currentUser".
    * Looks for the value in session attributes "currentUser" or "principal"
@@ -54,4 +73,19 @@ public class GlobalModelAttributes {
     // Helps Thymeleaf conditionally render navigation buttons or profile links
     return currentUser(session) != null;
   }
+
+  /**
+   * Number of items in the visitor's cart, for the header badge.
+   * Reads the cart's stored totals only, never its lines.
+   * Update: anonymous visitors with a cart cookie get their own count as well.
+   * @param request current request (anonymous cart cookie)
+   * @param auth signed-in user, or null for anonymous visitors
+   * @return item count, or null when the visitor has no cart
+   */
+  @ModelAttribute("cartCount")
+  public Integer cartCount(HttpServletRequest request, Authentication auth) {
+    String key = cartKeys.resolve(request, auth);
+    if (key == null) return null;
+    return carts.getSummary(key).getItemCount();
+  }
 }
@@ -0,0 +1,291 @@
+package com.clc.levelup.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to replica pools and everything else to the primary.
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction
+ * manager only marks a transaction read-only after it has asked for a
+ * connection, so the real connection has to be fetched on first use.
+ * </p>
+ * Reads stay on the primary when:
+ * <ul>
+ *   <li>no replica is healthy (a background check re-admits them when they answer again),</li>
+ *   <li>the current thread is pinned by {@link #pinToPrimary()} (a user's read-your-writes window), or</li>
+ *   <li>any write committed within the replica lag allowance, so shared caches are never
+ *       filled from a replica that has not caught up.</li>
+ * </ul>
+ * Transactions begun by {@link SessionScopedTransactionManager} (cart changes) only
+ * touch one visitor's rows, which no shared cache holds: they pin that visitor's
+ * reads but do not start the node-wide lag window.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  static final String PRIMARY = "primary";
+
+  // Set for one request by the read-your-writes filter
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+  // Set when this thread opened a write transaction
+  private static final ThreadLocal<Boolean> WROTE = new ThreadLocal<>();
+  // Transaction resource key for a write transaction declared session-scoped
+  private static final Object SESSION_SCOPED = new Object();
+
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final boolean[] healthy;
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicLong lastWriteNanos = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+  private final long lagAllowanceNanos;
+  private final ScheduledExecutorService healthCheck;
+
+  /**
+   * @param primary read-write pool
+   * @param replicas read-only pools (may be empty)
+   * @param healthCheckSeconds interval between replica probes; 0 disables the background check
+   * @param lagAllowanceMillis how long after any write reads keep going to the primary
+   */
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                  long healthCheckSeconds, long lagAllowanceMillis) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.healthy = new boolean[this.replicas.size()];
+    Arrays.fill(healthy, true);
+    this.lagAllowanceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lagAllowanceMillis));
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < this.replicas.size(); i++) {
+      targets.put(replicaKey(i), this.replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+
+    if (!this.replicas.isEmpty() && healthCheckSeconds > 0) {
+      healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "replica-health");
+        t.setDaemon(true);
+        return t;
+      });
+      healthCheck.scheduleWithFixedDelay(this::checkHealth, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
+    } else {
+      healthCheck = null;
+    }
+  }
+
+  /**
+   * Route this thread's reads to the primary until {@link #clearThread()}.
+   */
+  public static void pinToPrimary() {
+    PINNED.set(Boolean.TRUE);
+  }
+
+  /**
+   * Mark the transaction just begun on this thread as changing only one visitor's data.
+   * The mark follows the transaction through suspend/resume and ends with it.
+   * Called by {@link SessionScopedTransactionManager} before the first statement.
+   */
+  static void markSessionScoped() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(SESSION_SCOPED, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void suspend() {
+        // A REQUIRES_NEW transaction inside it is not session-scoped
+        TransactionSynchronizationManager.unbindResourceIfPossible(SESSION_SCOPED);
+      }
+
+      @Override
+      public void resume() {
+        TransactionSynchronizationManager.bindResource(SESSION_SCOPED, Boolean.TRUE);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(SESSION_SCOPED);
+      }
+    });
+  }
+
+  /**
+   * Whether this thread opened a write transaction since the last {@link #clearThread()}.
+   * @return true after a write
+   */
+  public static boolean wroteOnThread() {
+    return Boolean.TRUE.equals(WROTE.get());
+  }
+
+  /**
+   * Drop this thread's pin and write marker (end of request).
+   */
+  public static void clearThread() {
+    PINNED.remove();
+    WROTE.remove();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    if (!readOnly) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        WROTE.set(Boolean.TRUE);
+        if (TransactionSynchronizationManager.hasResource(SESSION_SCOPED)) {
+          // Read-your-writes pin only; other users' reads stay on the replicas
+          return PRIMARY;
+        }
+        lastWriteNanos.set(System.nanoTime());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+          // Restart the lag allowance at commit; a long write would otherwise outlive it
+          TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              lastWriteNanos.set(System.nanoTime());
+            }
+          });
+        }
+      }
+      return PRIMARY;
+    }
+    if (Boolean.TRUE.equals(PINNED.get()) || System.nanoTime() - lastWriteNanos.get() < lagAllowanceNanos) {
+      return PRIMARY;
+    }
+    int replica = pickReplica();
+    return replica < 0 ? PRIMARY : replicaKey(replica);
+  }
+
+  /**
+   * Open a connection on the routed pool; a replica that fails is marked down
+   * and the read falls back to the primary.
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    Object key = determineCurrentLookupKey();
+    if (PRIMARY.equals(key)) {
+      return primary.getConnection();
+    }
+    int index = replicaIndex(key);
+    try {
+      return replicas.get(index).getConnection();
+    } catch (SQLException ex) {
+      markDown(index, ex);
+      return primary.getConnection();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    // Pools are configured with their own credentials
+    return getConnection();
+  }
+
+  /**
+   * Probe every replica and update its health flag.
+   * Runs on the background schedule; public so tests can trigger it.
+   */
+  public void checkHealth() {
+    for (int i = 0; i < replicas.size(); i++) {
+      try (Connection con = replicas.get(i).getConnection()) {
+        boolean ok = con.isValid(2);
+        if (ok && !isHealthy(i)) {
+          log.info("Replica {} is answering again; routing reads to it", i);
+        }
+        setHealthy(i, ok);
+      } catch (SQLException ex) {
+        markDown(i, ex);
+      }
+    }
+  }
+
+  /**
+   * Health of each replica, in configuration order.
+   * @return one flag per replica
+   */
+  public synchronized List<Boolean> replicaHealth() {
+    List<Boolean> out = new ArrayList<>(healthy.length);
+    for (boolean h : healthy) {
+      out.add(h);
+    }
+    return out;
+  }
+
+  /**
+   * Stop the health check and close pools that support it.
+   */
+  @Override
+  public void close() {
+    if (healthCheck != null) {
+      healthCheck.shutdownNow();
+    }
+    closeQuietly(primary);
+    replicas.forEach(ReplicaRoutingDataSource::closeQuietly);
+  }
+
+  // Round-robin over healthy replicas; -1 when none is up
+  private int pickReplica() {
+    int n = replicas.size();
+    for (int attempt = 0; attempt < n; attempt++) {
+      int i = Math.floorMod(next.getAndIncrement(), n);
+      if (isHealthy(i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void markDown(int index, SQLException ex) {
+    if (isHealthy(index)) {
+      log.warn("Replica {} failed ({}); reads fall back to the primary", index, ex.getMessage());
+    }
+    setHealthy(index, false);
+  }
+
+  private synchronized boolean isHealthy(int index) {
+    return healthy[index];
+  }
+
+  private synchronized void setHealthy(int index, boolean value) {
+    healthy[index] = value;
+  }
+
+  private static String replicaKey(int index) {
+    return "replica-" + index;
+  }
+
+  private static int replicaIndex(Object key) {
+    return Integer.parseInt(((String) key).substring("replica-".length()));
+  }
+
+  private static void closeQuietly(DataSource ds) {
+    if (ds instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) ds).close();
+      } catch (Exception ex) {
+        log.debug("Closing data source failed", ex);
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.clc.levelup.config;
 
+import com.clc.levelup.security.CartMergeLoginSuccessHandler;
 import com.clc.levelup.security.CustomUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 /**
  * Defines security rules for both web and API layers.
@@ -51,11 +53,13 @@ public class SecurityConfig {
    * form login, logout, and Basic authentication for APIs.
    * @param http HttpSecurity builder
    * @param authProvider authentication provider for user verification
+   * @param loginSuccess moves an anonymous cart into the user's cart after form login
    * @return built SecurityFilterChain
    * @throws Exception if security configuration fails
    */
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authProvider) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authProvider,
+                                         CartMergeLoginSuccessHandler loginSuccess) throws Exception {
     http
       // Register custom authentication provider
       .authenticationProvider(authProvider)
@@ -68,11 +72,21 @@ public class SecurityConfig {
         // Allow read-only browsing of products without login
         .antMatchers(HttpMethod.GET, "/products/**").permitAll()
 
+        // Bulk catalog import and adjustments are admin-only
+        .antMatchers(HttpMethod.POST, "/api/products/import", "/api/products/adjust").hasRole("ADMIN")
+        .antMatchers(HttpMethod.PUT, "/api/products/*").hasRole("ADMIN")
+
+        // Update: the JSON cart is the shopper's own cart, used from pages via the session
+        .antMatchers("/api/cart/**").authenticated()
+
         // API endpoints require ROLE_API and Basic authentication
         .antMatchers("/api/**").hasRole("API")
 
-        // Require login for cart, checkout, and order operations
-        .antMatchers("/cart/**", "/checkout", "/orders").authenticated()
+        // Update: anonymous visitors can fill a cart (cookie-keyed, merged at login)
+        .antMatchers("/cart", "/cart/**").permitAll()
+
+        // Require login for checkout and order operations
+        .antMatchers("/checkout", "/orders").authenticated()
 
         // Default: any other route requires authentication
         .anyRequest().authenticated()
@@ -84,7 +98,8 @@ public class SecurityConfig {
         .loginPage("/login")
         .usernameParameter("emailOrUsername") // custom field name
         .passwordParameter("password")
-        .defaultSuccessUrl("/products", true)
+        // Update: same /products landing, but an anonymous cart is merged first (then /cart)
+        .successHandler(loginSuccess)
         .failureUrl("/login?error")
         .permitAll()
       )
@@ -94,8 +109,16 @@ public class SecurityConfig {
         .logoutSuccessUrl("/login?logout")
         .permitAll()
       )
-      // Keep CSRF enabled; safe for GET APIs
-      .csrf();
+      // Keep CSRF enabled; safe for GET APIs.
+      // Update: the import/adjust/PUT endpoints are called by scripts with Basic auth and no session.
+      // They only accept CSV/JSON bodies, which a cross-site form cannot send without a
+      // CORS preflight, so they are exempt from the token check.
+      // Update: the same holds for the read-only JSON multi-get (POST /api/products/lookup).
+      .csrf(csrf -> csrf.ignoringRequestMatchers(
+        new AntPathRequestMatcher("/api/products/import", "POST"),
+        new AntPathRequestMatcher("/api/products/adjust", "POST"),
+        new AntPathRequestMatcher("/api/products/lookup", "POST"),
+        new AntPathRequestMatcher("/api/products/*", "PUT")));
 
     // Build and return the security filter chain
     return http.build();
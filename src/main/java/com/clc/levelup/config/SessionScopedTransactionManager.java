@@ -0,0 +1,36 @@
+package com.clc.levelup.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Transaction manager for writes that only change one visitor's rows (their cart).
+ * <p>
+ * A transaction it begins is marked on the {@link ReplicaRoutingDataSource}: its
+ * writes pin that visitor's reads to the primary but leave every other reader on
+ * the replicas. When a method using it runs inside a transaction begun by the
+ * default manager (a cart clear inside checkout), it joins that transaction and
+ * marks nothing, so the outer writes keep the node-wide lag window.
+ * </p>
+ * Select it with {@link SessionScopedTransactional}.
+ */
+public class SessionScopedTransactionManager extends JdbcTransactionManager {
+
+  /**
+   * @param dataSource same DataSource as the default manager, so the two join each other's transactions
+   */
+  public SessionScopedTransactionManager(DataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  protected void prepareSynchronization(DefaultTransactionStatus status, TransactionDefinition definition) {
+    super.prepareSynchronization(status, definition);
+    if (status.isNewTransaction()) {
+      ReplicaRoutingDataSource.markSessionScoped();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.clc.levelup.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@code @Transactional} on the {@link SessionScopedTransactionManager}: for write
+ * methods that only change the current visitor's rows, such as cart updates.
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(DataSourceConfig.SESSION_TX_MANAGER)
+public @interface SessionScopedTransactional {
+}
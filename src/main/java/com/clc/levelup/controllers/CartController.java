@@ -1,54 +1,79 @@
 package com.clc.levelup.controllers;
 
+import com.clc.levelup.cart.Cart;
+import com.clc.levelup.cart.CartBatchResult;
+import com.clc.levelup.cart.CartBatchService;
 import com.clc.levelup.cart.CartItem;
+import com.clc.levelup.cart.CartLineRequest;
 import com.clc.levelup.cart.CartService;
 import com.clc.levelup.model.Product;
-import com.clc.levelup.orders.OrderService;
+import com.clc.levelup.orders.CheckoutResult;
+import com.clc.levelup.orders.CheckoutService;
 import com.clc.levelup.repository.UserRepository;
 import com.clc.levelup.service.ProductService;
+import com.clc.levelup.web.CartKeyResolver;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
 
-import java.math.BigDecimal;
 
 /**
  * Manages shopping cart and checkout operations.
  * Handles adding, updating, removing items, and completing checkout.
+ * Anonymous visitors can use the cart too (keyed by a cookie, see
+ * {@link CartKeyResolver}); checkout still requires signing in.
  */
 @Controller
 public class CartController {
 
     private final ProductService productService;
     private final CartService cart;
-    private final OrderService orders;
+    private final CartBatchService batch;
+    private final CheckoutService checkout;
     private final UserRepository users;
+    private final CartKeyResolver cartKeys;
 
     /**
      * Constructor that injects required services.
      * @param productService service providing product data
-     * @param cart session-based cart service
-     * @param orders order processing service
+     * @param cart cart service (carts are stored per user, not in the session)
+     * @param batch multi-product add (buy again, bundles)
+     * @param checkout checkout service (revalidates the cart and places orders)
      * @param users repository for user lookup
+     * @param cartKeys maps the request to the user's or the anonymous browser's cart
      */
-    public CartController(ProductService productService, CartService cart, OrderService orders, UserRepository users) {
+    public CartController(ProductService productService, CartService cart, CartBatchService batch,
+                          CheckoutService checkout, UserRepository users, CartKeyResolver cartKeys) {
         this.productService = productService;
         this.cart = cart;
-        this.orders = orders;
+        this.batch = batch;
+        this.checkout = checkout;
         this.users = users;
+        this.cartKeys = cartKeys;
     }
 
+    /** Header sent by the page script; such requests get the cart panel fragment instead of a redirect. */
+    static final String XHR_HEADER = "X-Requested-With";
+
     /**
-     * Display the current user's cart.
+     * Display the current user's (or anonymous browser's) cart.
+     * @param request current request (anonymous cart cookie)
+     * @param auth current authentication context, null for anonymous visitors
      * @param model view model
      * @return cart page template
      */
     @GetMapping("/cart")
-    public String viewCart(Model model) {
-        // Populate cart items and total for display
-        model.addAttribute("items", cart.getItems());
-        model.addAttribute("total", cart.getTotal());
+    public String viewCart(HttpServletRequest request, Authentication auth, Model model) {
+        // Populate cart items and total for display (one cart read, totals precomputed)
+        String key = cartKeys.resolve(request, auth);
+        addCartModel(model, key == null ? Cart.EMPTY : cart.getCart(key));
         return "cart/index";
     }
 
@@ -56,18 +81,62 @@ public class CartController {
      * Add a product to the cart.
      * @param id product identifier
      * @param qty quantity to add (defaults to 1)
-     * @return redirect to the cart view
+     * @param requestedWith "XMLHttpRequest" when called from the page script
+     * @param request current request (anonymous cart cookie)
+     * @param response current response (receives the cart cookie for anonymous visitors)
+     * @param auth current authentication context, null for anonymous visitors
+     * @param model view model (fragment mode only)
+     * @return redirect to the cart view, or the cart panel fragment for script requests
      */
     @PostMapping("/cart/add/{id}")
-    public String addToCart(@PathVariable long id, @RequestParam(defaultValue = "1") int qty) {
+    public String addToCart(@PathVariable long id, @RequestParam(defaultValue = "1") int qty,
+                            @RequestHeader(value = XHR_HEADER, required = false) String requestedWith,
+                            HttpServletRequest request, HttpServletResponse response,
+                            Authentication auth, Model model) {
         // Validate and locate product
         Product p = productService.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
 
-        // Add or increment quantity for this product
-        cart.addOrIncrement(new CartItem(p.getId(), p.getName(), p.getPrice(), Math.max(1, qty)));
+        // Add or increment quantity for this product (anonymous visitors get a cart cookie)
+        String key = cartKeys.resolveForUpdate(request, response, auth);
+        Cart updated = cart.addOrIncrement(key, new CartItem(p.getId(), p.getName(), p.getPrice(), Math.max(1, qty)));
+
+        // Redirect user back to the cart (script requests get the updated panel)
+        return cartResponse(updated, requestedWith, model);
+    }
 
-        // Redirect user back to the cart
+    /**
+     * Add several products in one request, e.g. "Buy again" on an order.
+     * Products are resolved in one lookup and added in one cart update.
+     * @param productIds products to add (repeated productId fields)
+     * @param qtys quantity for each product, in the same order
+     * @param request current request (anonymous cart cookie)
+     * @param response current response (receives the cart cookie for anonymous visitors)
+     * @param auth current authentication context, null for anonymous visitors
+     * @param ra flash message for products that no longer exist
+     * @return redirect to the cart view
+     */
+    @PostMapping("/cart/add-all")
+    public String addAllToCart(@RequestParam("productId") List<Long> productIds,
+                               @RequestParam("qty") List<Integer> qtys,
+                               HttpServletRequest request, HttpServletResponse response,
+                               Authentication auth, RedirectAttributes ra) {
+        if (productIds.size() != qtys.size()) {
+            throw new IllegalArgumentException("Each product needs a quantity");
+        }
+        List<CartLineRequest> lines = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            CartLineRequest line = new CartLineRequest();
+            line.setProductId(productIds.get(i));
+            line.setQuantity(qtys.get(i));
+            lines.add(line);
+        }
+        CartBatchResult result = batch.addAll(cartKeys.resolveForUpdate(request, response, auth), lines);
+        if (!result.getMissing().isEmpty()) {
+            ra.addFlashAttribute("info", result.getMissing().size() == 1
+                    ? "One product is no longer sold and was not added."
+                    : result.getMissing().size() + " products are no longer sold and were not added.");
+        }
         return "redirect:/cart";
     }
 
@@ -75,66 +144,120 @@ public class CartController {
      * Update quantity of a product in the cart.
      * @param id product identifier
      * @param qty new quantity value
-     * @return redirect to the cart view
+     * @param requestedWith "XMLHttpRequest" when called from the page script
+     * @param request current request (anonymous cart cookie)
+     * @param response current response (receives the cart cookie for anonymous visitors)
+     * @param auth current authentication context, null for anonymous visitors
+     * @param model view model (fragment mode only)
+     * @return redirect to the cart view, or the cart panel fragment for script requests
      */
     @PostMapping("/cart/update/{id}")
-    public String updateQty(@PathVariable long id, @RequestParam int qty) {
+    public String updateQty(@PathVariable long id, @RequestParam int qty,
+                            @RequestHeader(value = XHR_HEADER, required = false) String requestedWith,
+                            HttpServletRequest request, HttpServletResponse response,
+                            Authentication auth, Model model) {
         // Ensure at least one item remains
-        cart.updateQuantity(id, Math.max(1, qty));
-        return "redirect:/cart";
+        String key = cartKeys.resolveForUpdate(request, response, auth);
+        Cart updated = cart.updateQuantity(key, id, Math.max(1, qty));
+        return cartResponse(updated, requestedWith, model);
     }
 
     /**
      * Remove a product from the cart entirely.
      * @param id product identifier
-     * @return redirect to the cart view
+     * @param requestedWith "XMLHttpRequest" when called from the page script
+     * @param request current request (anonymous cart cookie)
+     * @param response current response (receives the cart cookie for anonymous visitors)
+     * @param auth current authentication context, null for anonymous visitors
+     * @param model view model (fragment mode only)
+     * @return redirect to the cart view, or the cart panel fragment for script requests
      */
     @PostMapping("/cart/remove/{id}")
-    public String remove(@PathVariable long id) {
-        cart.remove(id);
-        return "redirect:/cart";
+    public String remove(@PathVariable long id,
+                         @RequestHeader(value = XHR_HEADER, required = false) String requestedWith,
+                         HttpServletRequest request, HttpServletResponse response,
+                         Authentication auth, Model model) {
+        Cart updated = cart.remove(cartKeys.resolveForUpdate(request, response, auth), id);
+        return cartResponse(updated, requestedWith, model);
+    }
+
+    // Script requests get just the re-rendered panel (table, total and badge count) in one response
+    private String cartResponse(Cart updated, String requestedWith, Model model) {
+        if (!"XMLHttpRequest".equals(requestedWith)) {
+            return "redirect:/cart";
+        }
+        addCartModel(model, updated);
+        return "cart/index :: panel";
+    }
+
+    private void addCartModel(Model model, Cart current) {
+        model.addAttribute("items", current.getItems());
+        model.addAttribute("total", current.getTotal());
+        model.addAttribute("itemCount", current.getItemCount());
     }
 
     /**
-     * Show the checkout page with current cart contents.
+     * Show the checkout page with the cart revalidated against current prices and stock.
+     * @param auth current authentication context
      * @param model view model
      * @return checkout page template
      */
     @GetMapping("/checkout")
-    public String showCheckout(Model model) {
-        model.addAttribute("items", cart.getItems());
-        model.addAttribute("total", cart.getTotal());
+    public String showCheckout(Authentication auth, Model model) {
+        CheckoutResult review = checkout.review(cartKey(auth));
+        addCheckoutModel(model, review);
         return "checkout/index";
     }
 
     /**
      * Process checkout and create an order.
+     * The cart is revalidated first; if any price, stock or availability
+     * changed, no order is written and the changes are shown for review.
      * @param auth current authentication context
      * @param model view model
      * @return redirect to orders page or redisplay on error
      */
     @PostMapping("/checkout")
     public String doCheckout(Authentication auth, Model model) {
+        String key = cartKey(auth);
+
         // Block checkout if cart is empty
-        if (cart.isEmpty()) {
+        if (cart.isEmpty(key)) {
             model.addAttribute("error", "Your cart is empty.");
-            model.addAttribute("items", cart.getItems());
-            model.addAttribute("total", cart.getTotal());
+            addCheckoutModel(model, checkout.review(key));
             return "checkout/index";
         }
 
-        // Resolve logged-in user ID and process the order
-        Long userId = currentUserId(auth);
-        BigDecimal total = cart.getTotal();
-        Long orderId = orders.createOrder(userId, cart.getItems(), total);
-
-        // Clear cart after successful order creation
-        cart.clear();
+        // Revalidate, then place the order and clear the cart in one transaction
+        CheckoutResult result = checkout.placeOrder(key, currentUserId(auth));
+        if (!result.isPlaced()) {
+            if (result.getCart().isEmpty()) {
+                model.addAttribute("error", "Your cart is empty.");
+            }
+            addCheckoutModel(model, result);
+            return "checkout/index";
+        }
 
         // Redirect to orders page with success flag
         return "redirect:/orders?success=1";
     }
 
+    // Cart lines, total and any revalidation changes for the checkout page
+    private void addCheckoutModel(Model model, CheckoutResult result) {
+        model.addAttribute("items", result.getCart().getItems());
+        model.addAttribute("total", result.getCart().getTotal());
+        model.addAttribute("changes", result.getChanges());
+    }
+
+    /**
+     * Cart key for the signed-in user.
+     * @param auth authentication object from Spring Security
+     * @return key used by the cart store
+     */
+    private String cartKey(Authentication auth) {
+        return CartService.userKey(auth.getName());
+    }
+
     /**
      * Resolve the current logged-in user's ID from Authentication.
      * @param auth authentication object from Spring Security
@@ -1,10 +1,20 @@
 package com.clc.levelup.controllers;
 
 import com.clc.levelup.model.Product;
+import com.clc.levelup.search.FacetService;
+import com.clc.levelup.search.FilterPage;
+import com.clc.levelup.search.ProductFilter;
+import com.clc.levelup.search.ProductRangeIndex;
+import com.clc.levelup.search.ProductSearchService;
+import com.clc.levelup.service.ProductPage;
 import com.clc.levelup.service.ProductService;
+import com.clc.levelup.service.ProductSort;
+
+import java.math.BigDecimal;
 
 import javax.validation.Valid;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -21,27 +31,96 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class ProductController {
 
     private final ProductService products;
+    private final ProductSearchService search;
+    private final FacetService facets;
+    private final ProductRangeIndex ranges;
 
     /**
-     * Inject the ProductService dependency.
+     * Inject the product services.
      * @param products service providing product CRUD operations
+     * @param search in-memory product search
+     * @param facets in-memory category/manufacturer counts
+     * @param ranges in-memory sorted indexes for filtering
      */
-    public ProductController(ProductService products) {
+    public ProductController(ProductService products, ProductSearchService search, FacetService facets,
+                             ProductRangeIndex ranges) {
         this.products = products;
+        this.search = search;
+        this.facets = facets;
+        this.ranges = ranges;
     }
 
     /**
-     * Display a list of all products.
+     * Display one page of products.
+     * Uses keyset pagination so only the rows on screen are loaded.
+     * Category, price range, in-stock and price/newest sorting are answered
+     * from the in-memory range index instead.
+     * @param sort sort order ("id", "name", "price", "price_desc" or "newest")
+     * @param after cursor from the previous page
+     * @param size rows per page
+     * @param category optional category filter
+     * @param minPrice optional lowest price
+     * @param maxPrice optional highest price
+     * @param inStock only show products in stock when true
+     * @param pageNo 1-based page number for filtered listings
      * @param model MVC model for the view
      * @return view for product list
      */
     @GetMapping({"", "/list"})
-    public String list(Model model) {
-        // Fetch all products and send to the view
-        model.addAttribute("products", products.findAll());
+    public String list(@RequestParam(value = "sort", required = false) String sort,
+                       @RequestParam(value = "after", required = false) String after,
+                       @RequestParam(value = "size", required = false) Integer size,
+                       @RequestParam(value = "category", required = false) String category,
+                       @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+                       @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+                       @RequestParam(value = "inStock", required = false) Boolean inStock,
+                       @RequestParam(value = "page", required = false) Integer pageNo,
+                       Model model) {
+        // Sidebar counts come from memory, not a GROUP BY per page view
+        model.addAttribute("categoryFacets", facets.categories());
+
+        if (ProductFilter.isRequested(category, minPrice, maxPrice, inStock, sort)) {
+            ProductFilter filter;
+            try {
+                filter = ProductFilter.of(category, minPrice, maxPrice, inStock, sort, pageNo, size);
+            } catch (IllegalArgumentException ex) {
+                model.addAttribute("error", ex.getMessage());
+                filter = ProductFilter.of(category, null, null, inStock, null, null, size);
+            }
+            FilterPage filtered = ranges.find(filter);
+            model.addAttribute("products", filtered.getItems());
+            model.addAttribute("filtered", filtered);
+            return "products/list";
+        }
+
+        ProductPage page;
+        try {
+            page = products.findPage(ProductSort.parse(sort), after, size);
+        } catch (IllegalArgumentException ex) {
+            // Bad or stale cursor: fall back to the first page
+            model.addAttribute("error", ex.getMessage());
+            page = products.findPage(ProductSort.ID, null, size);
+        }
+
+        model.addAttribute("products", page.getItems());
+        model.addAttribute("page", page);
         return "products/list";
     }
 
+    /**
+     * Search products by name, description, manufacturer and category.
+     * Served entirely from the in-memory index.
+     * @param q search text
+     * @param model MVC model for the view
+     * @return search results view
+     */
+    @GetMapping("/search")
+    public String search(@RequestParam(value = "q", required = false) String q, Model model) {
+        model.addAttribute("q", q);
+        model.addAttribute("results", search.search(q, null));
+        return "products/search";
+    }
+
     /**
      * Show the new product creation form.
      * @param model MVC model
@@ -138,13 +217,15 @@ public class ProductController {
      * @param pathId path variable ID
      * @param form updated product data
      * @param result validation result
+     * @param model MVC model (used to re-show the form on an edit conflict)
      * @param ra redirect attributes
-     * @return redirect to product detail or list
+     * @return redirect to product detail or list, or the form again on a conflict
      */
     @PostMapping("/edit/{id}")
     public String editSubmit(@PathVariable("id") Long pathId,
                              @Valid @ModelAttribute("product") Product form,
                              BindingResult result,
+                             Model model,
                              RedirectAttributes ra) {
 
         // Repeat same validation used during creation
@@ -168,6 +249,13 @@ public class ProductController {
             products.update(form);
             ra.addFlashAttribute("success", "Product updated.");
             return "redirect:/products/" + pathId;
+        } catch (OptimisticLockingFailureException ex) {
+            // Update: someone saved first. Keep the user's input but move to the current
+            // version, so saving again is a deliberate overwrite rather than a silent one.
+            products.findById(pathId).ifPresent(current -> form.setVersion(current.getVersion()));
+            model.addAttribute("error", "Someone else saved this product while you were editing. "
+                    + "Your changes are shown below; save again to overwrite theirs.");
+            return "products/edit";
         } catch (IllegalArgumentException ex) {
             ra.addFlashAttribute("error", ex.getMessage());
             return "redirect:/products";
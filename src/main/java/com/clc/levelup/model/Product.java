@@ -2,6 +2,7 @@ package com.clc.levelup.model;
 
 import java.math.BigDecimal;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 import org.springframework.format.annotation.NumberFormat;
@@ -41,6 +42,13 @@ public class Product {
     @NumberFormat(pattern = "0.00")
     private BigDecimal price;
 
+    /**
+     * Optimistic-lock version. Spring Data JDBC adds {@code AND version = ?} to every
+     * update and increments it; null means the product has not been saved yet.
+     */
+    @Version
+    private Long version;
+
     /** Default constructor required by Spring Data. */
     public Product() { }
 
@@ -114,4 +122,10 @@ public class Product {
 
     /** Set the unit price. */
     public void setPrice(BigDecimal price) { this.price = price; }
+
+    /** Get the optimistic-lock version. */
+    public Long getVersion() { return version; }
+
+    /** Set the optimistic-lock version (the value the client last read). */
+    public void setVersion(Long version) { this.version = version; }
 }
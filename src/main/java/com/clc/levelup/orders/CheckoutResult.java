@@ -0,0 +1,63 @@
+package com.clc.levelup.orders;
+
+import com.clc.levelup.cart.Cart;
+
+import java.util.List;
+
+/**
+ * Outcome of a checkout attempt.
+ * Either an order was placed, or the cart was brought in line with current
+ * prices and stock and the changes are listed for the customer to review.
+ */
+public class CheckoutResult {
+
+    private final Cart cart;
+    private final List<String> changes;
+    private final Long orderId;
+
+    CheckoutResult(Cart cart, List<String> changes, Long orderId) {
+        this.cart = cart;
+        this.changes = List.copyOf(changes);
+        this.orderId = orderId;
+    }
+
+    /**
+     * Cart after revalidation (empty once an order is placed).
+     * @return cart snapshot
+     */
+    public Cart getCart() {
+        return cart;
+    }
+
+    /**
+     * Messages describing what revalidation changed, in cart order.
+     * @return change messages (empty when the cart was current)
+     */
+    public List<String> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Whether revalidation changed the cart.
+     * @return true if the customer should review the cart again
+     */
+    public boolean isChanged() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * ID of the placed order.
+     * @return order ID, or null if no order was written
+     */
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Whether an order was written.
+     * @return true if the order was placed
+     */
+    public boolean isPlaced() {
+        return orderId != null;
+    }
+}
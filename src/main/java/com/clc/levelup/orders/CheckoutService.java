@@ -0,0 +1,190 @@
+package com.clc.levelup.orders;
+
+import com.clc.levelup.cart.Cart;
+import com.clc.levelup.cart.CartItem;
+import com.clc.levelup.cart.CartService;
+import com.clc.levelup.config.SessionScopedTransactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Revalidates a cart against the live catalog before an order is written.
+ * <p>
+ * Cart lines keep the name and price from when they were added. Before the
+ * checkout page is shown and again when the order is placed, the current
+ * name, price and stock of every product in the cart are read with one
+ * {@code WHERE id IN (...)} query. The cart is then brought up to date:
+ * deleted or sold-out products are removed, quantities are cut to the stock
+ * on hand and prices are refreshed.
+ * </p>
+ * The cart is read under its lock, which is held until the transaction ends,
+ * so the lines checked are the lines ordered. When placing the order the
+ * product rows are also read {@code FOR UPDATE}, so the stock cannot be sold
+ * to someone else before the stock trigger runs.
+ * If anything changed, no order is written and the changes are returned for
+ * the customer to review.
+ */
+@Service
+public class CheckoutService {
+
+    private static final String LIVE_SQL = "SELECT id, name, price, quantity FROM products WHERE id IN (%s)";
+
+    private final JdbcTemplate jdbc;
+    private final CartService carts;
+    private final OrderService orders;
+
+    /**
+     * Inject collaborators.
+     * @param jdbc JdbcTemplate for the product lookup
+     * @param carts cart service
+     * @param orders order writer
+     */
+    public CheckoutService(JdbcTemplate jdbc, CartService carts, OrderService orders) {
+        this.jdbc = jdbc;
+        this.carts = carts;
+        this.orders = orders;
+    }
+
+    /**
+     * Bring a cart up to date with current prices and stock without ordering.
+     * Used when the checkout page is shown.
+     * @param cartKey cart owner key
+     * @return revalidated cart and the changes made
+     */
+    // Only rewrites this visitor's cart; no need to hold every reader on the primary
+    @SessionScopedTransactional
+    public CheckoutResult review(String cartKey) {
+        return reconcile(cartKey, false);
+    }
+
+    /**
+     * Revalidate the cart and, if it was already current, place the order and clear the cart.
+     * Everything runs in one transaction with the product rows locked.
+     * @param cartKey cart owner key
+     * @param userId ordering user's ID
+     * @return placed order, or the revalidated cart and its changes when the customer must review it
+     */
+    @Transactional
+    public CheckoutResult placeOrder(String cartKey, Long userId) {
+        CheckoutResult checked = reconcile(cartKey, true);
+        if (checked.isChanged() || checked.getCart().isEmpty()) {
+            return checked;
+        }
+        Cart cart = checked.getCart();
+        Long orderId = orders.createOrder(userId, cart.getItems(), cart.getTotal());
+        carts.clear(cartKey);
+        return new CheckoutResult(Cart.EMPTY, List.of(), orderId);
+    }
+
+    private CheckoutResult reconcile(String cartKey, boolean lock) {
+        // Read the cart under its lock, so a line added from another tab either
+        // lands before this check or waits until the order is written and the cart cleared
+        List<Cart> taken = new ArrayList<>(List.of(Cart.EMPTY));
+        carts.update(cartKey, cart -> {
+            taken.set(0, cart);
+            return cart;
+        });
+        Cart snapshot = taken.get(0);
+        if (snapshot.isEmpty()) {
+            return new CheckoutResult(snapshot, List.of(), null);
+        }
+        Set<Long> checked = snapshot.getItems().stream().map(CartItem::getProductId).collect(Collectors.toSet());
+        Map<Long, LiveProduct> live = loadLive(checked, lock);
+
+        // The change may be retried, so keep only the messages from the run that won
+        List<List<String>> changes = new ArrayList<>(List.of(List.of()));
+        Cart result = carts.update(cartKey, cart -> {
+            List<String> notes = new ArrayList<>();
+            Cart next = reconcile(cart, checked, live, notes);
+            changes.set(0, notes);
+            return next;
+        });
+        return new CheckoutResult(result, changes.get(0), null);
+    }
+
+    // One IN query for every product in the cart, in id order so row locks are taken consistently
+    private Map<Long, LiveProduct> loadLive(Collection<Long> ids, boolean lock) {
+        String sql = String.format(LIVE_SQL, String.join(",", Collections.nCopies(ids.size(), "?")))
+                + " ORDER BY id" + (lock ? " FOR UPDATE" : "");
+        Map<Long, LiveProduct> live = new HashMap<>();
+        jdbc.query(sql, rs -> {
+            LiveProduct p = new LiveProduct(rs.getString("name"), rs.getBigDecimal("price"), rs.getInt("quantity"));
+            live.put(rs.getLong("id"), p);
+        }, ids.toArray());
+        return live;
+    }
+
+    /**
+     * Apply current catalog values to a cart.
+     * @param cart cart to check
+     * @param checked product ids that were looked up (lines added since are left for the next check)
+     * @param live current values by product id; a checked id with no entry was deleted
+     * @param notes receives one message per change
+     * @return updated cart
+     */
+    static Cart reconcile(Cart cart, Set<Long> checked, Map<Long, LiveProduct> live, List<String> notes) {
+        Cart next = cart;
+        for (CartItem line : cart.getItems()) {
+            long id = line.getProductId();
+            if (!checked.contains(id)) {
+                notes.add(line.getName() + " was added while checking out; please review your cart.");
+                continue;
+            }
+            LiveProduct p = live.get(id);
+            if (p == null) {
+                notes.add(line.getName() + " is no longer available and was removed from your cart.");
+                next = next.without(id);
+                continue;
+            }
+            if (p.quantity <= 0) {
+                notes.add(p.name + " is sold out and was removed from your cart.");
+                next = next.without(id);
+                continue;
+            }
+            int quantity = line.getQuantity();
+            if (quantity > p.quantity) {
+                notes.add("Only " + p.quantity + " of " + p.name + " left; quantity changed from "
+                        + quantity + " to " + p.quantity + ".");
+                quantity = p.quantity;
+            }
+            if (line.getPrice().compareTo(p.price) != 0) {
+                notes.add("The price of " + p.name + " changed from $" + money(line.getPrice())
+                        + " to $" + money(p.price) + ".");
+            }
+            if (quantity != line.getQuantity() || line.getPrice().compareTo(p.price) != 0
+                    || !line.getName().equals(p.name)) {
+                next = next.with(new CartItem(id, p.name, p.price, quantity));
+            }
+        }
+        return next;
+    }
+
+    private static String money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    /** Current name, price and stock of one product. */
+    static final class LiveProduct {
+        final String name;
+        final BigDecimal price;
+        final int quantity;
+
+        LiveProduct(String name, BigDecimal price, int quantity) {
+            this.name = name;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+}
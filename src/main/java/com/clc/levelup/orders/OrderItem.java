@@ -98,4 +98,10 @@ public class OrderItem {
      * @param quantity number of units
      */
     public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    /**
+     * Line subtotal (unit price × quantity).
+     * @return subtotal amount
+     */
+    public BigDecimal getSubtotal() { return unitPrice.multiply(BigDecimal.valueOf(quantity)); }
 }
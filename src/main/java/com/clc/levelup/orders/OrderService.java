@@ -1,34 +1,42 @@
 package com.clc.levelup.orders;
 
 import com.clc.levelup.cart.CartItem;
+import com.clc.levelup.service.ProductService;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Manages order creation and retrieval.
  * - Inserts a new order header and its line items at checkout time.
  * - Provides queries for a user's order history and a single order with items.
  * Database triggers can be used to adjust product stock after inserts.
+ * History reads are read-only transactions, so they can be served by a replica.
  */
 @Service
 public class OrderService {
 
     private final JdbcTemplate jdbc;
+    private final ProductService products;
 
     /**
      * Inject JdbcTemplate for database access.
      * @param jdbc configured JdbcTemplate
+     * @param products product service, notified when the stock trigger runs
      */
-    public OrderService(JdbcTemplate jdbc) {
+    public OrderService(JdbcTemplate jdbc, ProductService products) {
         this.jdbc = jdbc;
+        this.products = products;
     }
 
     /**
@@ -39,7 +47,8 @@ public class OrderService {
      * @param total total amount for the order
      * @return generated order ID
      */
-    public Long createOrder(Long userId, List<CartItem> cartItems, BigDecimal total) {
+    @Transactional
+    public Long createOrder(Long userId, Collection<CartItem> cartItems, BigDecimal total) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         // Insert order header and capture generated ID
@@ -69,6 +78,9 @@ public class OrderService {
             );
         }
 
+        // The insert trigger changed stock, so cached product rows are now stale
+        products.stockChanged(cartItems.stream().map(CartItem::getProductId).collect(Collectors.toList()));
+
         return orderId;
     }
 
@@ -78,6 +90,7 @@ public class OrderService {
      * @param userId user ID
      * @return list of orders
      */
+    @Transactional(readOnly = true)
     public List<Order> findOrdersForUser(Long userId) {
         return jdbc.query(
             "SELECT id, user_id, created_at, total " +
@@ -100,6 +113,7 @@ public class OrderService {
      * @param orderId order ID to load
      * @return order with populated items
      */
+    @Transactional(readOnly = true)
     public Order findOrderWithItems(Long orderId) {
         // Query header
         Order order = jdbc.queryForObject(
@@ -1,13 +1,19 @@
 package com.clc.levelup.repository;
 
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import com.clc.levelup.model.Product;
 
 /**
  * Repository interface for managing {@link Product} entities.
  * Extends Spring Data JDBC {@link CrudRepository} to provide
  * built-in CRUD operations with optional custom finders.
+ * Keyset page queries seek past the last row seen instead of using OFFSET,
+ * so every page costs the same no matter how deep the client goes.
  */
 public interface ProductRepository extends CrudRepository<Product, Long> {
 
@@ -36,4 +42,51 @@ public interface ProductRepository extends CrudRepository<Product, Long> {
      * @return true if the product exists, false otherwise
      */
     boolean existsById(Long id);
+
+    /**
+     * Delete a product in one statement.
+     * @param id product ID
+     * @return rows deleted (0 when the product does not exist)
+     */
+    @Modifying
+    @Query("DELETE FROM products WHERE id = :id")
+    int deleteReturningCount(@Param("id") long id);
+
+    /**
+     * Find a product by its unique part number ({@code uk_products_partNumber}).
+     * @param partNumber part number
+     * @return optional containing the product, or empty if not found
+     */
+    Optional<Product> findByPartNumber(String partNumber);
+
+    /**
+     * Keyset page ordered by primary key.
+     * @param afterId id of the last row already returned (0 for the first page)
+     * @param limit maximum rows to return
+     * @return next rows with {@code id > afterId}
+     */
+    @Query("SELECT * FROM products WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Product> findPageById(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * First keyset page ordered by name, then id.
+     * @param limit maximum rows to return
+     * @return first rows in name order
+     */
+    @Query("SELECT * FROM products ORDER BY name, id LIMIT :limit")
+    List<Product> findFirstPageByName(@Param("limit") int limit);
+
+    /**
+     * Keyset page ordered by name, then id.
+     * Uses {@code idx_products_name}, which InnoDB extends with the primary key.
+     * @param afterName name of the last row already returned
+     * @param afterId id of the last row already returned
+     * @param limit maximum rows to return
+     * @return next rows after {@code (afterName, afterId)}
+     */
+    @Query("SELECT * FROM products WHERE name > :afterName OR (name = :afterName AND id > :afterId) "
+         + "ORDER BY name, id LIMIT :limit")
+    List<Product> findPageByName(@Param("afterName") String afterName,
+                                 @Param("afterId") long afterId,
+                                 @Param("limit") int limit);
 }
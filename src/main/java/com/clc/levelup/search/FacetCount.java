@@ -0,0 +1,31 @@
+package com.clc.levelup.search;
+
+/**
+ * Product counts for one facet value (a category or a manufacturer).
+ */
+public class FacetCount {
+
+    private final String value;
+    private final long total;
+    private final long inStock;
+
+    /**
+     * @param value facet value, e.g. "Apparel"
+     * @param total number of products with this value
+     * @param inStock number of those products with quantity above zero
+     */
+    public FacetCount(String value, long total, long inStock) {
+        this.value = value;
+        this.total = total;
+        this.inStock = inStock;
+    }
+
+    /** @return facet value */
+    public String getValue() { return value; }
+
+    /** @return number of products with this value */
+    public long getTotal() { return total; }
+
+    /** @return number of those products currently in stock */
+    public long getInStock() { return inStock; }
+}
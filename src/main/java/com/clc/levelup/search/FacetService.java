@@ -0,0 +1,183 @@
+package com.clc.levelup.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductChangeEvent;
+import com.clc.levelup.service.ProductService;
+
+/**
+ * Maintains per-category and per-manufacturer product counts in memory.
+ * <p>
+ * Counts are {@link LongAdder}s (striped counters), so concurrent writers do
+ * not contend on one memory location. The service remembers the last facet
+ * values it saw for each product; each change event is applied as a diff
+ * (old values -1, new values +1). Reading the facets never queries the database.
+ * </p>
+ */
+@Service
+public class FacetService {
+
+    private final ProductService products;
+
+    // Last known facet values per product id
+    private final ConcurrentHashMap<Long, Facets> known = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Counter> categories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> manufacturers = new ConcurrentHashMap<>();
+
+    /**
+     * Inject the product service used for the initial load.
+     * @param products product service
+     */
+    public FacetService(ProductService products) {
+        this.products = products;
+    }
+
+    /**
+     * Count the full catalog at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload(products.findAll());
+    }
+
+    // Count every given product; products we knew about but did not see are counted out like deletes
+    private void reload(Iterable<Product> all) {
+        Set<Long> seen = new HashSet<>();
+        for (Product p : all) {
+            apply(p.getId(), Facets.of(p));
+            seen.add(p.getId());
+        }
+        for (Long id : known.keySet()) {
+            if (!seen.contains(id)) {
+                apply(id, null);
+            }
+        }
+    }
+
+    /**
+     * Apply one committed catalog or stock change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getType() == ProductChangeEvent.Type.RELOADED) {
+            reload(event.getCatalog());
+        } else if (event.getType() == ProductChangeEvent.Type.DELETED) {
+            apply(event.getProductId(), null);
+        } else {
+            apply(event.getProductId(), Facets.of(event.getProduct()));
+        }
+    }
+
+    /**
+     * Category counts, sorted by name, omitting empty categories.
+     * @return category facets
+     */
+    public List<FacetCount> categories() {
+        return snapshot(categories);
+    }
+
+    /**
+     * Manufacturer counts, sorted by name, omitting empty manufacturers.
+     * @return manufacturer facets
+     */
+    public List<FacetCount> manufacturers() {
+        return snapshot(manufacturers);
+    }
+
+    /**
+     * Both facet groups keyed by name, as returned by the API.
+     * @return map with "categories" and "manufacturers"
+     */
+    public Map<String, List<FacetCount>> all() {
+        Map<String, List<FacetCount>> out = new LinkedHashMap<>();
+        out.put("categories", categories());
+        out.put("manufacturers", manufacturers());
+        return out;
+    }
+
+    /**
+     * Replace the remembered facets of one product and adjust the counters.
+     * {@code compute} makes the swap atomic per product, so two events for the
+     * same id cannot both subtract the same old values.
+     */
+    private void apply(Long id, Facets next) {
+        if (id == null) {
+            return;
+        }
+        known.compute(id, (k, prev) -> {
+            if (prev != null) {
+                adjust(prev, -1);
+            }
+            if (next != null) {
+                adjust(next, +1);
+            }
+            return next;
+        });
+    }
+
+    private void adjust(Facets f, int delta) {
+        categories.computeIfAbsent(f.category, c -> new Counter()).add(delta, f.inStock);
+        manufacturers.computeIfAbsent(f.manufacturer, m -> new Counter()).add(delta, f.inStock);
+    }
+
+    private static List<FacetCount> snapshot(Map<String, Counter> counters) {
+        List<FacetCount> out = new ArrayList<>();
+        counters.forEach((value, c) -> {
+            long total = c.total.sum();
+            if (total > 0) {
+                out.add(new FacetCount(value, total, c.inStock.sum()));
+            }
+        });
+        out.sort(Comparator.comparing(FacetCount::getValue, String.CASE_INSENSITIVE_ORDER));
+        return out;
+    }
+
+    /** Striped counters for one facet value. */
+    private static final class Counter {
+        final LongAdder total = new LongAdder();
+        final LongAdder inStock = new LongAdder();
+
+        void add(int delta, boolean stocked) {
+            total.add(delta);
+            if (stocked) {
+                inStock.add(delta);
+            }
+        }
+    }
+
+    /** The facet-relevant fields of one product. */
+    private static final class Facets {
+        final String category;
+        final String manufacturer;
+        final boolean inStock;
+
+        private Facets(String category, String manufacturer, boolean inStock) {
+            this.category = category;
+            this.manufacturer = manufacturer;
+            this.inStock = inStock;
+        }
+
+        static Facets of(Product p) {
+            return new Facets(
+                p.getCategory() == null ? "" : p.getCategory(),
+                p.getManufacturer() == null ? "" : p.getManufacturer(),
+                p.getQuantity() > 0);
+        }
+    }
+}
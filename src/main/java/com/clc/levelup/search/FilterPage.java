@@ -0,0 +1,42 @@
+package com.clc.levelup.search;
+
+import java.util.List;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * One page of a filtered product listing.
+ */
+public class FilterPage {
+
+    private final List<Product> items;
+    private final ProductFilter filter;
+    private final boolean hasNext;
+
+    /**
+     * Create a page.
+     * @param items products on this page (at most {@code filter.getSize()})
+     * @param filter query that produced the page
+     * @param hasNext true when another page follows
+     */
+    public FilterPage(List<Product> items, ProductFilter filter, boolean hasNext) {
+        this.items = items;
+        this.filter = filter;
+        this.hasNext = hasNext;
+    }
+
+    /** @return products on this page */
+    public List<Product> getItems() { return items; }
+
+    /** @return query that produced the page */
+    public ProductFilter getFilter() { return filter; }
+
+    /** @return 1-based page number */
+    public int getPage() { return filter.getPage(); }
+
+    /** @return effective page size */
+    public int getSize() { return filter.getSize(); }
+
+    /** @return true when another page follows */
+    public boolean isHasNext() { return hasNext; }
+}
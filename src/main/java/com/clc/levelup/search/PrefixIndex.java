@@ -0,0 +1,271 @@
+package com.clc.levelup.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Immutable, array-packed sorted prefix index over product names and part numbers.
+ * <p>
+ * Keys are kept in two sorted {@code String[]} arrays with parallel {@code int[]}
+ * product ordinals:
+ * </p>
+ * <ul>
+ *   <li>primary: the whole name and the part number (best matches)</li>
+ *   <li>secondary: each later word of the name, so "hoo" also finds "Boss Fight Hoodie"</li>
+ * </ul>
+ * <p>
+ * Matches are ranked, not returned in key order: whole-name and part-number
+ * matches before later-word matches, then in-stock products before sold-out
+ * ones, then by name. Every product gets a fixed rank at build time, and each
+ * key array carries a min-rank tree over its keys. A lookup binary-searches
+ * the prefix range and pulls the best-ranked keys out of that range through
+ * the tree, so it costs O(log n + limit log n) however many keys match.
+ * </p>
+ * Instances are never modified; the owner swaps in a new one after catalog changes.
+ */
+final class PrefixIndex {
+
+    static final PrefixIndex EMPTY = build(List.of());
+
+    // Product data by ordinal
+    private final long[] ids;
+    private final String[] names;
+    private final String[] partNumbers;
+
+    // Sorted keys and the ordinal each key points at
+    private final String[] primaryKeys;
+    private final int[] primaryDocs;
+    private final String[] secondaryKeys;
+    private final int[] secondaryDocs;
+
+    // Best (lowest) product rank under each node, per key array
+    private final RankTree primaryRanks;
+    private final RankTree secondaryRanks;
+
+    private PrefixIndex(long[] ids, String[] names, String[] partNumbers, int[] rank,
+                        String[] primaryKeys, int[] primaryDocs,
+                        String[] secondaryKeys, int[] secondaryDocs) {
+        this.ids = ids;
+        this.names = names;
+        this.partNumbers = partNumbers;
+        this.primaryKeys = primaryKeys;
+        this.primaryDocs = primaryDocs;
+        this.secondaryKeys = secondaryKeys;
+        this.secondaryDocs = secondaryDocs;
+        this.primaryRanks = new RankTree(primaryDocs, rank);
+        this.secondaryRanks = new RankTree(secondaryDocs, rank);
+    }
+
+    /**
+     * Build a new index from the given products.
+     * @param products catalog snapshot
+     * @return packed index
+     */
+    static PrefixIndex build(Collection<Product> products) {
+        int n = products.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        String[] parts = new String[n];
+        boolean[] inStock = new boolean[n];
+        List<Key> primary = new ArrayList<>(n * 2);
+        List<Key> secondary = new ArrayList<>(n * 2);
+
+        int ord = 0;
+        for (Product p : products) {
+            ids[ord] = p.getId();
+            names[ord] = p.getName() == null ? "" : p.getName();
+            parts[ord] = p.getPartNumber() == null ? "" : p.getPartNumber();
+            inStock[ord] = p.getQuantity() > 0;
+
+            String name = normalize(names[ord]);
+            if (!name.isEmpty()) {
+                primary.add(new Key(name, ord));
+            }
+            if (!parts[ord].isEmpty()) {
+                primary.add(new Key(normalize(parts[ord]), ord));
+            }
+            // Every later word start becomes its own key ("fight hoodie", "hoodie")
+            for (int i = 1; i < name.length(); i++) {
+                if (name.charAt(i - 1) == ' ' && name.charAt(i) != ' ') {
+                    secondary.add(new Key(name.substring(i), ord));
+                }
+            }
+            ord++;
+        }
+
+        Comparator<Key> order = Comparator.comparing((Key k) -> k.text).thenComparingInt(k -> k.doc);
+        primary.sort(order);
+        secondary.sort(order);
+
+        // Rank 0 is the best suggestion: in stock first, then by name, then id
+        Integer[] byRank = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byRank[i] = i;
+        }
+        Arrays.sort(byRank, Comparator.comparing((Integer d) -> !inStock[d])
+                .thenComparing(d -> normalize(names[d]))
+                .thenComparingLong(d -> ids[d]));
+        int[] rank = new int[n];
+        for (int r = 0; r < n; r++) {
+            rank[byRank[r]] = r;
+        }
+
+        return new PrefixIndex(ids, names, parts, rank,
+                primary.stream().map(k -> k.text).toArray(String[]::new),
+                primary.stream().mapToInt(k -> k.doc).toArray(),
+                secondary.stream().map(k -> k.text).toArray(String[]::new),
+                secondary.stream().mapToInt(k -> k.doc).toArray());
+    }
+
+    /**
+     * Find the best {@code limit} products whose name, name word or part number
+     * starts with {@code prefix}. Whole-name and part-number matches come first;
+     * within each group in-stock products come first, then by name.
+     * @param prefix user input (case-insensitive)
+     * @param limit maximum suggestions
+     * @return suggestions best first, no duplicates
+     */
+    List<Suggestion> lookup(String prefix, int limit) {
+        String p = normalize(prefix);
+        List<Suggestion> out = new ArrayList<>(limit);
+        if (p.isEmpty() || limit < 1) {
+            return out;
+        }
+        int[] seen = new int[limit];
+        int count = best(primaryKeys, primaryDocs, primaryRanks, p, limit, seen, 0, out);
+        best(secondaryKeys, secondaryDocs, secondaryRanks, p, limit, seen, count, out);
+        return out;
+    }
+
+    /** @return number of products in this index */
+    int size() {
+        return ids.length;
+    }
+
+    // Add the best-ranked products among the keys starting with prefix, until limit
+    private int best(String[] keys, int[] docs, RankTree ranks, String prefix, int limit,
+                     int[] seen, int count, List<Suggestion> out) {
+        int lo = lowerBound(keys, prefix);
+        int hi = lowerBound(keys, prefix + Character.MAX_VALUE);
+        if (count >= limit || lo >= hi) {
+            return count;
+        }
+        RankTree.Cursor c = ranks.range(lo, hi);
+        for (int i = c.next(); i >= 0 && count < limit; i = c.next()) {
+            int doc = docs[i];
+            if (!contains(seen, count, doc)) {
+                seen[count++] = doc;
+                out.add(new Suggestion(ids[doc], names[doc], partNumbers[doc]));
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(int[] seen, int count, int doc) {
+        for (int i = 0; i < count; i++) {
+            if (seen[i] == doc) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First index whose key is >= target
+    private static int lowerBound(String[] keys, String target) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(target) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Lowercase and collapse whitespace so "  Boss   fight" matches "boss fight"
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Min tree over the product rank of each key position. Extracting the k
+     * best positions of a range pops O(k) nodes from a small heap seeded with
+     * the O(log n) nodes covering the range.
+     */
+    private static final class RankTree {
+        private final int leaves;
+        private final int[] min;
+
+        RankTree(int[] docs, int[] rank) {
+            int size = 1;
+            while (size < docs.length) {
+                size <<= 1;
+            }
+            leaves = size;
+            min = new int[2 * size];
+            Arrays.fill(min, Integer.MAX_VALUE);
+            for (int i = 0; i < docs.length; i++) {
+                min[size + i] = rank[docs[i]];
+            }
+            for (int i = size - 1; i > 0; i--) {
+                min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+            }
+        }
+
+        /** Key positions in [lo, hi) in ascending rank order. */
+        Cursor range(int lo, int hi) {
+            Cursor c = new Cursor();
+            for (int l = lo + leaves, h = hi + leaves; l < h; l >>= 1, h >>= 1) {
+                if ((l & 1) == 1) {
+                    c.heap.add(l++);
+                }
+                if ((h & 1) == 1) {
+                    c.heap.add(--h);
+                }
+            }
+            return c;
+        }
+
+        final class Cursor {
+            final PriorityQueue<Integer> heap =
+                    new PriorityQueue<>(Comparator.comparingInt((Integer node) -> min[node]).thenComparingInt(n -> n));
+
+            /** @return next key position, or -1 when the range is exhausted */
+            int next() {
+                while (!heap.isEmpty()) {
+                    int node = heap.poll();
+                    if (node >= leaves) {
+                        return node - leaves;
+                    }
+                    heap.add(2 * node);
+                    heap.add(2 * node + 1);
+                }
+                return -1;
+            }
+        }
+    }
+
+    /** Build-time pair of key text and product ordinal. */
+    private static final class Key {
+        final String text;
+        final int doc;
+
+        Key(String text, int doc) {
+            this.text = text;
+            this.doc = doc;
+        }
+    }
+}
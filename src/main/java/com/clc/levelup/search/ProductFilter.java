@@ -0,0 +1,167 @@
+package com.clc.levelup.search;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * One storefront filter query: category, price range, in-stock flag, sort and page.
+ * Immutable; build with {@link #of}.
+ */
+public final class ProductFilter {
+
+    /** Page size used when the client does not ask for one. */
+    public static final int DEFAULT_SIZE = 20;
+
+    /** Upper bound on any requested page size. */
+    public static final int MAX_SIZE = 100;
+
+    /** Deepest page served; paging walks every earlier row, so depth is bounded. */
+    public static final int MAX_PAGE = 500;
+
+    /** Orders served by {@link ProductRangeIndex}. */
+    public enum Sort {
+        /** Cheapest first. */
+        PRICE,
+        /** Most expensive first. */
+        PRICE_DESC,
+        /** Alphabetical, case-insensitive. */
+        NAME,
+        /** Most recently added first (highest id). */
+        NEWEST;
+
+        /**
+         * Parse a request parameter, falling back to {@link #NAME} when blank.
+         * @param value raw parameter value (case-insensitive)
+         * @return matching sort
+         * @throws IllegalArgumentException if the value is not a known sort
+         */
+        public static Sort parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NAME;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown sort: " + value);
+            }
+        }
+
+        /**
+         * Lowercase form used in URLs.
+         * @return parameter value for this sort
+         */
+        public String param() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String category;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final boolean inStock;
+    private final Sort sort;
+    private final int page;
+    private final int size;
+
+    private ProductFilter(String category, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock,
+                          Sort sort, int page, int size) {
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+        this.sort = sort;
+        this.page = page;
+        this.size = size;
+    }
+
+    /**
+     * Build a filter from request parameters. Every argument may be null.
+     * @param category category name (case-insensitive)
+     * @param minPrice lowest price, inclusive
+     * @param maxPrice highest price, inclusive
+     * @param inStock only products with quantity above zero when true
+     * @param sort "price", "price_desc", "name" (default) or "newest"
+     * @param page 1-based page number
+     * @param size page size (capped at {@link #MAX_SIZE})
+     * @return filter
+     * @throws IllegalArgumentException for an unknown sort, a negative price,
+     *         a minimum above the maximum, or a page below 1 or above {@link #MAX_PAGE}
+     */
+    public static ProductFilter of(String category, BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                   String sort, Integer page, Integer size) {
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() < 0)) {
+            throw new IllegalArgumentException("Prices cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice is above maxPrice");
+        }
+        if (page != null && page < 1) {
+            throw new IllegalArgumentException("page starts at 1");
+        }
+        if (page != null && page > MAX_PAGE) {
+            throw new IllegalArgumentException("page cannot be above " + MAX_PAGE + "; narrow the filter instead");
+        }
+        int pageSize = (size == null || size < 1) ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+        return new ProductFilter(
+                category == null || category.isBlank() ? null : category.trim(),
+                minPrice, maxPrice, Boolean.TRUE.equals(inStock),
+                Sort.parse(sort), page == null ? 1 : page, pageSize);
+    }
+
+    /**
+     * Whether the request asks for filtering or an order only the range index serves.
+     * Plain id/name listings keep using keyset pagination.
+     * @param category category parameter
+     * @param minPrice minimum price parameter
+     * @param maxPrice maximum price parameter
+     * @param inStock in-stock parameter
+     * @param sort sort parameter
+     * @return true when {@link ProductRangeIndex} should answer
+     */
+    public static boolean isRequested(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                      Boolean inStock, String sort) {
+        if ((category != null && !category.isBlank()) || minPrice != null || maxPrice != null
+                || Boolean.TRUE.equals(inStock)) {
+            return true;
+        }
+        if (sort == null) {
+            return false;
+        }
+        String s = sort.trim().toLowerCase(Locale.ROOT);
+        return s.equals("price") || s.equals("price_desc") || s.equals("newest");
+    }
+
+    /** @return category, or null for all categories */
+    public String getCategory() { return category; }
+
+    /** @return inclusive lower price bound, or null */
+    public BigDecimal getMinPrice() { return minPrice; }
+
+    /** @return inclusive upper price bound, or null */
+    public BigDecimal getMaxPrice() { return maxPrice; }
+
+    /** @return true to skip out-of-stock products */
+    public boolean isInStock() { return inStock; }
+
+    /** @return sort order */
+    public Sort getSort() { return sort; }
+
+    /** @return 1-based page number */
+    public int getPage() { return page; }
+
+    /** @return effective page size */
+    public int getSize() { return size; }
+
+    /** @return true when a price bound is set */
+    public boolean hasPriceRange() { return minPrice != null || maxPrice != null; }
+
+    /**
+     * Stable text form, used as the ETag variant.
+     * @return query-string-like description
+     */
+    @Override
+    public String toString() {
+        return "category=" + category + "&minPrice=" + minPrice + "&maxPrice=" + maxPrice
+                + "&inStock=" + inStock + "&sort=" + sort.param() + "&page=" + page + "&size=" + size;
+    }
+}
@@ -0,0 +1,260 @@
+package com.clc.levelup.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductChangeEvent;
+import com.clc.levelup.service.ProductService;
+
+/**
+ * Sorted in-memory indexes for storefront filtering (category, price range,
+ * in stock) and ordering (price, name, newest).
+ * <p>
+ * Each category, plus one bucket for the whole catalog, keeps its products in
+ * three {@link ConcurrentSkipListSet}s ordered by price, name and id. A price
+ * range is a {@code subSet} of the price order, so finding where it starts is
+ * logarithmic. Paging is by offset: page N walks the matching rows of every
+ * earlier page before it reaches its own, which is why
+ * {@link ProductFilter#MAX_PAGE} bounds the depth. A price range combined with
+ * the name or newest order copies and sorts every row in the range before
+ * paging. Change events move one product between sets in O(log n); readers
+ * never lock.
+ * </p>
+ * "Newest" is the highest id first: ids are assigned in insert order and the
+ * products table has no other creation column mapped.
+ */
+@Service
+public class ProductRangeIndex {
+
+    private static final Comparator<Entry> BY_PRICE =
+            Comparator.comparing((Entry e) -> e.price).thenComparingLong(e -> e.id);
+    private static final Comparator<Entry> BY_NAME =
+            Comparator.comparing((Entry e) -> e.nameKey).thenComparingLong(e -> e.id);
+    private static final Comparator<Entry> BY_NEWEST =
+            Comparator.comparingLong((Entry e) -> e.id).reversed();
+
+    private final ProductService products;
+
+    // Current entry per product id; writers hold the monitor
+    private final Map<Long, Entry> known = new HashMap<>();
+
+    // Category key ("" = whole catalog) to its sorted sets; swapped whole on reload
+    private volatile Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Inject the product service used for the initial load.
+     * @param products product service
+     */
+    public ProductRangeIndex(ProductService products) {
+        this.products = products;
+    }
+
+    /**
+     * Index the full catalog at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload(products.findAll());
+    }
+
+    /**
+     * Apply one committed catalog or stock change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getType() == ProductChangeEvent.Type.RELOADED) {
+            reload(event.getCatalog());
+        } else if (event.getType() == ProductChangeEvent.Type.DELETED) {
+            apply(event.getProductId(), null);
+        } else {
+            apply(event.getProductId(), event.getProduct());
+        }
+    }
+
+    /**
+     * Run a filter query.
+     * @param filter category, price range, stock flag, sort and page
+     * @return products on the requested page, in order
+     */
+    public FilterPage find(ProductFilter filter) {
+        Bucket bucket = buckets.get(filter.getCategory() == null ? "" : key(filter.getCategory()));
+        if (bucket == null) {
+            return new FilterPage(List.of(), filter, false);
+        }
+
+        NavigableSet<Entry> range = bucket.byPrice;
+        if (filter.hasPriceRange()) {
+            Entry from = Entry.probe(filter.getMinPrice() == null ? BigDecimal.ZERO : filter.getMinPrice(), Long.MIN_VALUE);
+            range = filter.getMaxPrice() == null
+                    ? bucket.byPrice.tailSet(from, true)
+                    : bucket.byPrice.subSet(from, true, Entry.probe(filter.getMaxPrice(), Long.MAX_VALUE), true);
+        }
+
+        Iterator<Entry> ordered;
+        switch (filter.getSort()) {
+            case PRICE:
+                ordered = range.iterator();
+                break;
+            case PRICE_DESC:
+                ordered = range.descendingIterator();
+                break;
+            default:
+                NavigableSet<Entry> order = filter.getSort() == ProductFilter.Sort.NEWEST ? bucket.byNewest : bucket.byName;
+                if (filter.hasPriceRange()) {
+                    // Copies and sorts every row in the price range (not the whole bucket) on each query
+                    List<Entry> matched = new ArrayList<>(range);
+                    matched.sort(order.comparator());
+                    ordered = matched.iterator();
+                } else {
+                    ordered = order.iterator();
+                }
+        }
+
+        // Long so a deep page can never wrap around to a negative skip
+        long skip = (long) (filter.getPage() - 1) * filter.getSize();
+        List<Product> items = new ArrayList<>(filter.getSize());
+        boolean hasNext = false;
+        while (ordered.hasNext()) {
+            Entry e = ordered.next();
+            if (filter.isInStock() && !e.inStock) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+            } else if (items.size() < filter.getSize()) {
+                items.add(e.product);
+            } else {
+                // No link past the deepest page ProductFilter accepts
+                hasNext = filter.getPage() < ProductFilter.MAX_PAGE;
+                break;
+            }
+        }
+        return new FilterPage(items, filter, hasNext);
+    }
+
+    /**
+     * Number of indexed products.
+     * @return catalog size as seen by the index
+     */
+    public synchronized int size() {
+        return known.size();
+    }
+
+    // Rebuild every bucket from the given catalog and swap them in at once
+    private synchronized void reload(Iterable<Product> all) {
+        Map<String, Bucket> fresh = new ConcurrentHashMap<>();
+        known.clear();
+        for (Product p : all) {
+            Entry e = Entry.of(p);
+            known.put(e.id, e);
+            add(fresh, e);
+        }
+        buckets = fresh;
+    }
+
+    // Move one product to its new position (or out of the index when next is null)
+    private synchronized void apply(Long id, Product next) {
+        if (id == null) {
+            return;
+        }
+        Entry prev = next == null ? known.remove(id) : known.put(id, Entry.of(next));
+        Map<String, Bucket> current = buckets;
+        if (prev != null) {
+            remove(current, prev);
+        }
+        if (next != null) {
+            add(current, known.get(id));
+        }
+    }
+
+    private static void add(Map<String, Bucket> target, Entry e) {
+        target.computeIfAbsent("", k -> new Bucket()).add(e);
+        target.computeIfAbsent(e.categoryKey, k -> new Bucket()).add(e);
+    }
+
+    private static void remove(Map<String, Bucket> target, Entry e) {
+        Bucket all = target.get("");
+        if (all != null) {
+            all.remove(e);
+        }
+        Bucket cat = target.get(e.categoryKey);
+        if (cat != null) {
+            cat.remove(e);
+        }
+    }
+
+    private static String key(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** The three orders kept for one category. */
+    private static final class Bucket {
+        final ConcurrentSkipListSet<Entry> byPrice = new ConcurrentSkipListSet<>(BY_PRICE);
+        final ConcurrentSkipListSet<Entry> byName = new ConcurrentSkipListSet<>(BY_NAME);
+        final ConcurrentSkipListSet<Entry> byNewest = new ConcurrentSkipListSet<>(BY_NEWEST);
+
+        void add(Entry e) {
+            byPrice.add(e);
+            byName.add(e);
+            byNewest.add(e);
+        }
+
+        void remove(Entry e) {
+            byPrice.remove(e);
+            byName.remove(e);
+            byNewest.remove(e);
+        }
+    }
+
+    /**
+     * Sort keys copied out of a product when it is indexed, so later changes to
+     * the product object cannot reorder a set behind its back.
+     */
+    private static final class Entry {
+        final long id;
+        final BigDecimal price;
+        final String nameKey;
+        final String categoryKey;
+        final boolean inStock;
+        final Product product;
+
+        private Entry(long id, BigDecimal price, String nameKey, String categoryKey, boolean inStock, Product product) {
+            this.id = id;
+            this.price = price;
+            this.nameKey = nameKey;
+            this.categoryKey = categoryKey;
+            this.inStock = inStock;
+            this.product = product;
+        }
+
+        static Entry of(Product p) {
+            return new Entry(p.getId(),
+                    p.getPrice() == null ? BigDecimal.ZERO : p.getPrice(),
+                    p.getName() == null ? "" : p.getName().toLowerCase(Locale.ROOT),
+                    key(p.getCategory()),
+                    p.getQuantity() > 0,
+                    p);
+        }
+
+        // Bound for price range lookups; sorts before/after every real id at that price
+        static Entry probe(BigDecimal price, long id) {
+            return new Entry(id, price, "", "", false, null);
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package com.clc.levelup.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * In-memory inverted index over product text fields with BM25 ranking.
+ * <p>
+ * Indexed fields are name, category, manufacturer and description. Each field
+ * has its own weight, so a match in the name counts more than one in the
+ * description. Query terms are matched in three ways:
+ * </p>
+ * <ol>
+ *   <li>exact term (full weight)</li>
+ *   <li>prefix expansion for the last term, so "hood" finds "hoodie"</li>
+ *   <li>trigram candidates checked by edit distance when the exact term is
+ *       unknown, so "hodie" still finds "hoodie"</li>
+ * </ol>
+ * <p>
+ * Products are mapped to dense int ordinals and postings are primitive arrays,
+ * so scoring is a tight loop over {@code int[]}/{@code float[]}. Scores are
+ * summed in a primitive hash table allocated per query and sized to the
+ * documents the query's postings name, so no catalog-sized buffer is kept
+ * per request thread.
+ * All state is guarded by a read/write lock: queries share the read lock and
+ * incremental updates take the write lock for a single product.
+ * </p>
+ */
+public class ProductSearchIndex {
+
+    // Standard BM25 tuning constants
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field boosts applied to term frequency
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float MANUFACTURER_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Match weights for expanded (non-exact) terms
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final float ONE_EDIT_WEIGHT = 0.7f;
+    private static final float TWO_EDIT_WEIGHT = 0.5f;
+
+    // Cap on expansions per query term to keep latency predictable
+    private static final int MAX_EXPANSIONS = 10;
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Product id <-> dense ordinal; freed ordinals are reused
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private long[] ids = new long[64];
+    private float[] lengths = new float[64];
+    private String[][] docTerms = new String[64][];
+    private int ordinalLimit;
+
+    // Inverted index, sorted for prefix lookups
+    private final TreeMap<String, Posting> postings = new TreeMap<>();
+
+    // Trigram -> terms containing it, used for typo candidates
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    // Sum of all document lengths, for the BM25 average length
+    private double totalLength;
+
+    /**
+     * Replace the whole index with the given products.
+     * @param products full catalog
+     */
+    public void rebuild(Iterable<Product> products) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            freeOrdinals.clear();
+            postings.clear();
+            grams.clear();
+            ids = new long[64];
+            lengths = new float[64];
+            docTerms = new String[64][];
+            ordinalLimit = 0;
+            totalLength = 0;
+            for (Product p : products) {
+                if (p.getId() != null && !ordinals.containsKey(p.getId())) {
+                    addLocked(p);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert or replace one product.
+     * @param p product to index
+     */
+    public void put(Product p) {
+        if (p == null || p.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(p.getId());
+            addLocked(p);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove one product.
+     * @param id product id
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed products.
+     * @return document count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run a ranked query.
+     * @param query free text entered by the user
+     * @param limit maximum hits to return
+     * @return hits ordered by descending score (ties by id)
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int n = ordinals.size();
+            if (n == 0) {
+                return List.of();
+            }
+            float avgLength = (float) (totalLength / n);
+
+            // Expand every term first so the tables can be sized to the candidates
+            List<Map<String, Float>> expansions = new ArrayList<>(terms.size());
+            int candidates = 0;
+            int widestTerm = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<String, Float> expanded = expand(terms.get(i), i == terms.size() - 1);
+                int termCandidates = 0;
+                for (String t : expanded.keySet()) {
+                    termCandidates += postings.get(t).size;
+                }
+                expansions.add(expanded);
+                candidates += termCandidates;
+                widestTerm = Math.max(widestTerm, termCandidates);
+            }
+            if (candidates == 0) {
+                return List.of();
+            }
+
+            DocScores total = new DocScores(Math.min(n, candidates));
+            DocScores best = new DocScores(Math.min(n, widestTerm));
+            for (Map<String, Float> expanded : expansions) {
+                // Best contribution per document for this query term, so a doc
+                // matching several expansions is not counted twice
+                for (Map.Entry<String, Float> e : expanded.entrySet()) {
+                    Posting posting = postings.get(e.getKey());
+                    float weight = e.getValue() * idf(n, posting.size);
+                    int[] docs = posting.docs;
+                    float[] tfs = posting.tfs;
+                    for (int k = 0; k < posting.size; k++) {
+                        int d = docs[k];
+                        float tf = tfs[k];
+                        best.max(d, weight * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * lengths[d] / avgLength)));
+                    }
+                }
+                for (int k = 0; k < best.size; k++) {
+                    total.add(best.docAt(k), best.scoreAt(k));
+                }
+                best.clear();
+            }
+            return topK(total, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lowercase letter/digit tokens.
+     * @param text input text (may be null)
+     * @return tokens in order
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> out = new ArrayList<>();
+        for (String t : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty()) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    // ----- index maintenance (write lock held) -----
+
+    private void addLocked(Product p) {
+        Map<String, Float> tf = new HashMap<>();
+        addField(tf, p.getName(), NAME_WEIGHT);
+        addField(tf, p.getCategory(), CATEGORY_WEIGHT);
+        addField(tf, p.getManufacturer(), MANUFACTURER_WEIGHT);
+        addField(tf, p.getDescription(), DESCRIPTION_WEIGHT);
+
+        int ord = allocateOrdinal();
+        float length = 0;
+        for (Map.Entry<String, Float> e : tf.entrySet()) {
+            length += e.getValue();
+            Posting posting = postings.get(e.getKey());
+            if (posting == null) {
+                posting = new Posting();
+                postings.put(e.getKey(), posting);
+                for (String g : trigrams(e.getKey())) {
+                    grams.computeIfAbsent(g, k -> new HashSet<>()).add(e.getKey());
+                }
+            }
+            posting.add(ord, e.getValue());
+        }
+        ordinals.put(p.getId(), ord);
+        ids[ord] = p.getId();
+        lengths[ord] = length;
+        docTerms[ord] = tf.keySet().toArray(new String[0]);
+        totalLength += length;
+    }
+
+    private void removeLocked(Long id) {
+        Integer ord = ordinals.remove(id);
+        if (ord == null) {
+            return;
+        }
+        totalLength -= lengths[ord];
+        for (String term : docTerms[ord]) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(ord);
+            if (posting.size == 0) {
+                // Last document using this term: drop it from the vocabulary
+                postings.remove(term);
+                for (String g : trigrams(term)) {
+                    Set<String> bucket = grams.get(g);
+                    if (bucket != null) {
+                        bucket.remove(term);
+                        if (bucket.isEmpty()) {
+                            grams.remove(g);
+                        }
+                    }
+                }
+            }
+        }
+        docTerms[ord] = null;
+        lengths[ord] = 0;
+        freeOrdinals.push(ord);
+    }
+
+    private int allocateOrdinal() {
+        if (!freeOrdinals.isEmpty()) {
+            return freeOrdinals.pop();
+        }
+        if (ordinalLimit == ids.length) {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            lengths = Arrays.copyOf(lengths, cap);
+            docTerms = Arrays.copyOf(docTerms, cap);
+        }
+        return ordinalLimit++;
+    }
+
+    private static void addField(Map<String, Float> tf, String text, float weight) {
+        for (String t : tokenize(text)) {
+            tf.merge(t, weight, Float::sum);
+        }
+    }
+
+    // ----- query helpers (read lock held) -----
+
+    /**
+     * Map one query term to vocabulary terms with a match weight.
+     */
+    private Map<String, Float> expand(String term, boolean allowPrefix) {
+        Map<String, Float> out = new LinkedHashMap<>();
+        if (postings.containsKey(term)) {
+            out.put(term, 1.0f);
+        }
+
+        if (allowPrefix && term.length() >= 2) {
+            SortedMap<String, Posting> tail = postings.subMap(term, term + Character.MAX_VALUE);
+            for (String candidate : tail.keySet()) {
+                if (out.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                out.putIfAbsent(candidate, PREFIX_WEIGHT);
+            }
+        }
+
+        if (out.isEmpty() && term.length() >= 3) {
+            fuzzy(term, out);
+        }
+        return out;
+    }
+
+    /**
+     * Typo tolerance: collect terms that share trigrams with the query term,
+     * then keep those within one edit (short terms) or two edits (long terms).
+     */
+    private void fuzzy(String term, Map<String, Float> out) {
+        Map<String, Integer> shared = new HashMap<>();
+        for (String g : trigrams(term)) {
+            Set<String> bucket = grams.get(g);
+            if (bucket != null) {
+                for (String candidate : bucket) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        int maxEdits = term.length() <= 5 ? 1 : 2;
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(shared.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        for (Map.Entry<String, Integer> e : ranked) {
+            if (out.size() >= MAX_EXPANSIONS) {
+                break;
+            }
+            String candidate = e.getKey();
+            if (Math.abs(candidate.length() - term.length()) > maxEdits) {
+                continue;
+            }
+            int d = editDistance(term, candidate, maxEdits);
+            if (d <= maxEdits) {
+                out.put(candidate, d == 1 ? ONE_EDIT_WEIGHT : TWO_EDIT_WEIGHT);
+            }
+        }
+    }
+
+    private static float idf(int n, int df) {
+        return (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * Select the best {@code k} scored documents.
+     * Uses a bounded min-heap of table entries so only hits that beat the
+     * current k-th best are touched again.
+     */
+    private List<SearchHit> topK(DocScores s, int k) {
+        int[] heap = new int[Math.min(k, s.size)];
+        int size = 0;
+        for (int t = 0; t < s.size; t++) {
+            if (size < heap.length) {
+                heap[size++] = t;
+                siftUp(heap, size - 1, s);
+            } else if (heap.length > 0 && better(t, heap[0], s)) {
+                heap[0] = t;
+                siftDown(heap, size, s);
+            }
+        }
+
+        List<SearchHit> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add(new SearchHit(ids[s.docAt(heap[i])], s.scoreAt(heap[i])));
+        }
+        out.sort((a, b) -> {
+            int c = Double.compare(b.getScore(), a.getScore());
+            return c != 0 ? c : Long.compare(a.getProductId(), b.getProductId());
+        });
+        return Collections.unmodifiableList(out);
+    }
+
+    // Higher score wins; on a tie the lower product id wins
+    private boolean better(int a, int b, DocScores s) {
+        float sa = s.scoreAt(a);
+        float sb = s.scoreAt(b);
+        if (sa != sb) {
+            return sa > sb;
+        }
+        return ids[s.docAt(a)] < ids[s.docAt(b)];
+    }
+
+    private void siftUp(int[] heap, int i, DocScores score) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(heap[parent], heap[i], score)) {
+                break;
+            }
+            int tmp = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = tmp;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, DocScores score) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            int r = l + 1;
+            int worst = i;
+            if (l < size && better(heap[worst], heap[l], score)) {
+                worst = l;
+            }
+            if (r < size && better(heap[worst], heap[r], score)) {
+                worst = r;
+            }
+            if (worst == i) {
+                return;
+            }
+            int tmp = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = tmp;
+            i = worst;
+        }
+    }
+
+    /**
+     * Trigrams of a term padded with boundary markers ("^ho", "hoo", ..., "ie$").
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            out.add(padded.substring(i, i + 3));
+        }
+        return out;
+    }
+
+    /**
+     * Optimal-string-alignment distance (Levenshtein plus adjacent swaps),
+     * abandoning early once every cell in a row exceeds {@code max}.
+     * @return distance, or {@code max + 1} when it is larger than {@code max}
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int v = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    v = Math.min(v, prevPrev[j - 2] + 1);
+                }
+                cur[j] = v;
+                rowMin = Math.min(rowMin, v);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        return Math.min(prev[b.length()], max + 1);
+    }
+
+    /** Postings for one term: parallel arrays of doc ordinals and weighted tf. */
+    private static final class Posting {
+        int[] docs = new int[4];
+        float[] tfs = new float[4];
+        int size;
+
+        void add(int doc, float tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+        }
+
+        // Order inside a posting does not matter, so swap the last entry in
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    tfs[i] = tfs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Doc ordinal to score, open addressing over primitive arrays.
+     * Sized for a known upper bound of distinct documents, so it never grows;
+     * entries are also kept in insertion order for iteration.
+     */
+    private static final class DocScores {
+        private static final int EMPTY = -1;
+
+        final int[] keys;
+        final float[] values;
+        final int[] slots;
+        final int mask;
+        int size;
+
+        DocScores(int maxDocs) {
+            int cap = 4;
+            while (cap < maxDocs * 2) {
+                cap <<= 1;
+            }
+            keys = new int[cap];
+            Arrays.fill(keys, EMPTY);
+            values = new float[cap];
+            slots = new int[Math.max(1, maxDocs)];
+            mask = cap - 1;
+        }
+
+        /** Keep the larger of the stored and the given score. */
+        void max(int doc, float v) {
+            int i = slot(doc);
+            if (keys[i] == EMPTY) {
+                insert(i, doc, v);
+            } else if (v > values[i]) {
+                values[i] = v;
+            }
+        }
+
+        /** Add to the stored score. */
+        void add(int doc, float v) {
+            int i = slot(doc);
+            if (keys[i] == EMPTY) {
+                insert(i, doc, v);
+            } else {
+                values[i] += v;
+            }
+        }
+
+        int docAt(int entry) {
+            return keys[slots[entry]];
+        }
+
+        float scoreAt(int entry) {
+            return values[slots[entry]];
+        }
+
+        /** Empty the table, touching only the used slots. */
+        void clear() {
+            for (int k = 0; k < size; k++) {
+                keys[slots[k]] = EMPTY;
+            }
+            size = 0;
+        }
+
+        private void insert(int i, int doc, float v) {
+            keys[i] = doc;
+            values[i] = v;
+            slots[size++] = i;
+        }
+
+        private int slot(int doc) {
+            int h = doc * 0x9E3779B9;
+            int i = (h ^ (h >>> 16)) & mask;
+            while (keys[i] != EMPTY && keys[i] != doc) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+    }
+}
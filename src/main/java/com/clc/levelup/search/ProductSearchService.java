@@ -0,0 +1,100 @@
+package com.clc.levelup.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductChangeEvent;
+import com.clc.levelup.service.ProductService;
+
+/**
+ * Keeps {@link ProductSearchIndex} in sync with the catalog and serves queries.
+ * <p>
+ * The index is built once when the application is ready. After that it is
+ * updated one product at a time from committed {@link ProductChangeEvent}s,
+ * so queries never touch the database. Hits are resolved to products in one
+ * {@link ProductService#findAllByIds} call, which serves them from its cache
+ * and loads any misses with a single IN query.
+ * </p>
+ */
+@Service
+public class ProductSearchService {
+
+    /** Result count used when the client does not ask for one. */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /** Upper bound on any requested result count. */
+    public static final int MAX_LIMIT = 100;
+
+    private final ProductService products;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * Inject the product service used for the initial load and hit lookup.
+     * @param products product service
+     */
+    public ProductSearchService(ProductService products) {
+        this.products = products;
+    }
+
+    /**
+     * Build the index from the full catalog at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.rebuild(products.findAll());
+    }
+
+    /**
+     * Apply one committed catalog change to the index.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                index.put(event.getProduct());
+                break;
+            case DELETED:
+                index.remove(event.getProductId());
+                break;
+            case RELOADED:
+                index.rebuild(event.getCatalog());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Search the catalog.
+     * @param query free text; blank returns no results
+     * @param limit maximum results (defaults to DEFAULT_LIMIT, capped at MAX_LIMIT)
+     * @return results in relevance order
+     */
+    public List<SearchResult> search(String query, Integer limit) {
+        int max = (limit == null || limit < 1) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<SearchHit> hits = index.search(query, max);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ids.add(hit.getProductId());
+        }
+        Map<Long, Product> found = products.findAllByIds(ids);
+        List<SearchResult> out = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            // A product deleted between indexing and lookup is simply skipped
+            Product p = found.get(hit.getProductId());
+            if (p != null) {
+                out.add(new SearchResult(p, hit.getScore()));
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,159 @@
+package com.clc.levelup.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductChangeEvent;
+import com.clc.levelup.service.ProductService;
+
+/**
+ * Typeahead suggestions for the product search box.
+ * <p>
+ * Lookups read an immutable {@link PrefixIndex} through a volatile reference,
+ * so keystroke traffic never locks and never touches the database. Catalog
+ * changes update a small id-to-product map and schedule one rebuild on a
+ * background thread; bursts of changes collapse into a single rebuild, and
+ * readers keep using the previous index until the new one is swapped in.
+ * </p>
+ */
+@Service
+public class ProductSuggester {
+
+    /** Suggestions returned when the caller does not pass a limit. */
+    public static final int DEFAULT_LIMIT = 8;
+
+    /** Upper bound on suggestions per request. */
+    public static final int MAX_LIMIT = 20;
+
+    private final ProductService products;
+
+    // Current name/part number per product id, source for each rebuild
+    private final ConcurrentHashMap<Long, Product> catalog = new ConcurrentHashMap<>();
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "suggest-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Set while a rebuild is queued but not yet started
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+
+    /**
+     * Inject the product service used for the initial load.
+     * @param products product service
+     */
+    public ProductSuggester(ProductService products) {
+        this.products = products;
+    }
+
+    /**
+     * Build the index from the full catalog at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Product p : products.findAll()) {
+            catalog.put(p.getId(), p);
+        }
+        rebuild();
+    }
+
+    /**
+     * Track committed catalog changes. Stock changes only matter when a product
+     * sells out or comes back, since in-stock products rank first.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        switch (event.getType()) {
+            case DELETED:
+                catalog.remove(event.getProductId());
+                break;
+            case CREATED:
+            case UPDATED:
+                catalog.put(event.getProductId(), event.getProduct());
+                break;
+            case STOCK_CHANGED:
+                Product before = catalog.put(event.getProductId(), event.getProduct());
+                if (before != null && (before.getQuantity() > 0) == (event.getProduct().getQuantity() > 0)) {
+                    return;
+                }
+                break;
+            case RELOADED:
+                reloadCatalog(event.getCatalog());
+                break;
+            default:
+                return;
+        }
+        scheduleRebuild();
+    }
+
+    /**
+     * Suggest products whose name, any word of the name, or part number starts with the input.
+     * @param prefix what the user has typed so far
+     * @param limit maximum results (null for the default)
+     * @return suggestions best first: whole-name/part-number matches, then in-stock, then by name
+     */
+    public List<Suggestion> suggest(String prefix, Integer limit) {
+        int n = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return index.lookup(prefix, n);
+    }
+
+    /**
+     * Number of products in the live index.
+     * @return indexed product count
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Stop the rebuild thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    // Replace the tracked catalog with a fresh read, dropping ids that no longer exist
+    private void reloadCatalog(List<Product> all) {
+        Map<Long, Product> fresh = new HashMap<>();
+        for (Product p : all) {
+            fresh.put(p.getId(), p);
+        }
+        catalog.keySet().retainAll(fresh.keySet());
+        catalog.putAll(fresh);
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private void rebuild() {
+        index = PrefixIndex.build(new ArrayList<>(catalog.values()));
+    }
+}
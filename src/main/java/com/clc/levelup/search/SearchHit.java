@@ -0,0 +1,25 @@
+package com.clc.levelup.search;
+
+/**
+ * One ranked match from {@link ProductSearchIndex}: a product id and its score.
+ */
+public final class SearchHit {
+
+    private final long productId;
+    private final double score;
+
+    /**
+     * @param productId matching product id
+     * @param score BM25 relevance score (higher is better)
+     */
+    public SearchHit(long productId, double score) {
+        this.productId = productId;
+        this.score = score;
+    }
+
+    /** @return matching product id */
+    public long getProductId() { return productId; }
+
+    /** @return relevance score */
+    public double getScore() { return score; }
+}
@@ -0,0 +1,27 @@
+package com.clc.levelup.search;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * A search hit resolved to its product, as returned to views and the API.
+ */
+public class SearchResult {
+
+    private final Product product;
+    private final double score;
+
+    /**
+     * @param product matching product
+     * @param score relevance score
+     */
+    public SearchResult(Product product, double score) {
+        this.product = product;
+        this.score = score;
+    }
+
+    /** @return matching product */
+    public Product getProduct() { return product; }
+
+    /** @return relevance score (higher is better) */
+    public double getScore() { return score; }
+}
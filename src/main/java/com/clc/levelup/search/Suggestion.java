@@ -0,0 +1,31 @@
+package com.clc.levelup.search;
+
+/**
+ * One typeahead suggestion: enough to render a dropdown row and link to the product.
+ */
+public class Suggestion {
+
+    private final long id;
+    private final String name;
+    private final String partNumber;
+
+    /**
+     * @param id product id
+     * @param name product name
+     * @param partNumber product part number
+     */
+    public Suggestion(long id, String name, String partNumber) {
+        this.id = id;
+        this.name = name;
+        this.partNumber = partNumber;
+    }
+
+    /** @return product id */
+    public long getId() { return id; }
+
+    /** @return product name */
+    public String getName() { return name; }
+
+    /** @return product part number */
+    public String getPartNumber() { return partNumber; }
+}
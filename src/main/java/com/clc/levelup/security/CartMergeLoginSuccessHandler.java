@@ -0,0 +1,70 @@
+package com.clc.levelup.security;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import com.clc.levelup.cart.CartService;
+import com.clc.levelup.web.CartKeyResolver;
+
+/**
+ * Form-login success handler that carries an anonymous cart over to the user.
+ * <p>
+ * If the browser has an anonymous cart cookie, every line of that cart is
+ * added to the user's cart in one transaction ({@link CartService#merge}),
+ * the anonymous cart is deleted and the cookie expired. The user then lands
+ * on the cart so the merged lines can be checked out; otherwise on the
+ * products page as before.
+ * </p>
+ */
+@Component
+public class CartMergeLoginSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(CartMergeLoginSuccessHandler.class);
+
+    private final CartService carts;
+    private final CartKeyResolver cartKeys;
+
+    /**
+     * @param carts cart service performing the merge
+     * @param cartKeys reads and expires the anonymous cart cookie
+     */
+    public CartMergeLoginSuccessHandler(CartService carts, CartKeyResolver cartKeys) {
+        super("/products");
+        setAlwaysUseDefaultTargetUrl(true);
+        this.carts = carts;
+        this.cartKeys = cartKeys;
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException, ServletException {
+        String anonymousKey = cartKeys.anonymousKey(request);
+        if (anonymousKey == null) {
+            super.onAuthenticationSuccess(request, response, authentication);
+            return;
+        }
+        int merged = 0;
+        try {
+            merged = carts.merge(anonymousKey, CartService.userKey(authentication.getName()));
+        } catch (RuntimeException ex) {
+            // Never fail a login over the cart; the anonymous cart simply expires
+            log.warn("Could not merge anonymous cart at login: {}", ex.getMessage());
+        }
+        cartKeys.clearCookie(request, response);
+        if (merged == 0) {
+            super.onAuthenticationSuccess(request, response, authentication);
+            return;
+        }
+        clearAuthenticationAttributes(request);
+        getRedirectStrategy().sendRedirect(request, response, "/cart");
+    }
+}
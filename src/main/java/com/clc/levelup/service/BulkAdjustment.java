@@ -0,0 +1,59 @@
+package com.clc.levelup.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Request body for a bulk price or stock change.
+ * Exactly one selector ({@code ids}, {@code category} or {@code partNumberPattern}) must be set.
+ */
+public class BulkAdjustment {
+
+    /** Supported bulk operations. */
+    public enum Operation {
+        /** price = value */
+        SET_PRICE,
+        /** price = price * (1 + value / 100), rounded to cents, never below 0 */
+        PERCENT_PRICE,
+        /** quantity = quantity + value, kept between 0 and the INT maximum */
+        ADD_STOCK,
+        /** quantity = value */
+        SET_STOCK
+    }
+
+    private Operation operation;
+    private BigDecimal value;
+    private List<Long> ids;
+    private String category;
+    private String partNumberPattern;
+
+    /** @return operation to apply */
+    public Operation getOperation() { return operation; }
+
+    /** @param operation operation to apply */
+    public void setOperation(Operation operation) { this.operation = operation; }
+
+    /** @return price, percentage or stock amount, depending on the operation */
+    public BigDecimal getValue() { return value; }
+
+    /** @param value price, percentage or stock amount */
+    public void setValue(BigDecimal value) { this.value = value; }
+
+    /** @return product ids to change */
+    public List<Long> getIds() { return ids; }
+
+    /** @param ids product ids to change */
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    /** @return category whose products change (exact match) */
+    public String getCategory() { return category; }
+
+    /** @param category category whose products change */
+    public void setCategory(String category) { this.category = category; }
+
+    /** @return part number pattern; {@code *} matches any run of characters (e.g. "LU-TS-*") */
+    public String getPartNumberPattern() { return partNumberPattern; }
+
+    /** @param partNumberPattern part number pattern with {@code *} wildcards */
+    public void setPartNumberPattern(String partNumberPattern) { this.partNumberPattern = partNumberPattern; }
+}
@@ -0,0 +1,362 @@
+package com.clc.levelup.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Server-Sent Events feed of committed catalog changes.
+ * <p>
+ * Every {@link ProductChangeEvent} is encoded to JSON once, numbered, and kept
+ * in a fixed-size ring buffer so a reconnecting client can resume from its
+ * {@code Last-Event-ID}. Subscribers are {@link SseEmitter}s on async servlet
+ * requests, so an idle connection holds no thread.
+ * </p>
+ * <p>
+ * Each subscriber has its own bounded queue, drained by at most one thread of
+ * a small fixed sender pool at a time, so its stream stays in order and the
+ * thread count does not grow with the number of connections. Publishing just
+ * appends to the queues and never touches a connection. A subscriber whose
+ * queue fills up is disconnected; it reconnects with its last id and resumes
+ * from the buffer (or gets a reset). That bound is also what keeps slow
+ * clients from tying up the pool for long.
+ * </p>
+ * Event ids look like {@code <boot>-<seq>}; an id from before a restart, or one
+ * that has already dropped out of the buffer, gets a {@code reset} event telling
+ * the client to reload the catalog.
+ */
+@Service
+public class CatalogChangeFeed {
+
+    // Events one drain task writes before yielding its pool thread
+    private static final int DRAIN_BATCH = 32;
+
+    // Distinguishes ids issued by this process from ids issued before a restart
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final ObjectMapper mapper;
+    private final long timeoutMillis;
+    private final int queueSize;
+
+    // Ring buffer of the most recent events; seq N lives at N % capacity
+    private final FeedEvent[] ring;
+    private long lastSeq;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong overflows = new AtomicLong();
+
+    // Drains busy subscribers' queues; each drain task ends when its queue is empty
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "catalog-feed-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param mapper application JSON mapper
+     * @param bufferSize number of recent events kept for resume
+     * @param timeoutMinutes how long one connection stays open before the client reconnects
+     * @param heartbeatSeconds interval of keep-alive comments on idle connections
+     * @param queueSize live events one subscriber may have waiting before it is disconnected
+     * @param senderThreads size of the pool that writes to subscribers
+     */
+    public CatalogChangeFeed(ObjectMapper mapper,
+                             @Value("${levelup.changes.buffer-size:1000}") int bufferSize,
+                             @Value("${levelup.changes.timeout-minutes:30}") long timeoutMinutes,
+                             @Value("${levelup.changes.heartbeat-seconds:20}") long heartbeatSeconds,
+                             @Value("${levelup.changes.subscriber-queue:256}") int queueSize,
+                             @Value("${levelup.changes.sender-threads:4}") int senderThreads) {
+        this.mapper = mapper;
+        this.ring = new FeedEvent[Math.max(16, bufferSize)];
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(Math.max(1, timeoutMinutes));
+        this.queueSize = Math.max(1, queueSize);
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread t = new Thread(r, "catalog-feed-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1, heartbeatSeconds);
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, every, every, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Record one committed change and queue it for every subscriber.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        String data = encode(event);
+        String name = event.getType().name().toLowerCase();
+        synchronized (this) {
+            FeedEvent fe = new FeedEvent(++lastSeq, name, data);
+            ring[(int) (fe.seq % ring.length)] = fe;
+            // Queued under the lock so every queue sees events in sequence order
+            for (Subscriber sub : subscribers) {
+                sub.offer(fe);
+            }
+        }
+    }
+
+    /**
+     * Open a new subscription.
+     * @param lastEventId value of the client's {@code Last-Event-ID} header, or null for live events only
+     * @return emitter bound to the async response
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        synchronized (this) {
+            List<FeedEvent> replay = new ArrayList<>();
+            boolean reset = collectReplay(lastEventId, replay);
+            // Replay goes in ahead of any live event published after this point
+            Subscriber sub = new Subscriber(emitter, replay.size() + (reset ? 1 : 0));
+            if (reset) {
+                sub.queue.add(SseEmitter.event().id(id(lastSeq)).name("reset")
+                        .data("{\"reason\":\"resume point unavailable; reload the catalog\"}"));
+            }
+            for (FeedEvent fe : replay) {
+                sub.queue.add(event(fe));
+            }
+            emitter.onCompletion(() -> subscribers.remove(sub));
+            emitter.onTimeout(() -> subscribers.remove(sub));
+            emitter.onError(ex -> subscribers.remove(sub));
+            subscribers.add(sub);
+            sub.schedule();
+        }
+        return emitter;
+    }
+
+    /**
+     * Subscriber count and buffer position, for monitoring.
+     * @return stats keyed by name
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("subscribers", subscribers.size());
+        out.put("lastEventId", id(lastSeq));
+        out.put("bufferSize", ring.length);
+        out.put("subscriberQueue", queueSize);
+        out.put("overflowDisconnects", overflows.get());
+        return out;
+    }
+
+    /**
+     * Stop feed threads and close open streams on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(sub -> sub.emitter.complete());
+    }
+
+    /**
+     * Fill {@code out} with buffered events after the client's id.
+     * Caller holds the lock.
+     * @param lastEventId client's {@code Last-Event-ID}, or null
+     * @param out receives the events to replay, oldest first
+     * @return true when the client must reload instead (unknown boot, or id fell out of the buffer)
+     */
+    boolean collectReplay(String lastEventId, List<FeedEvent> out) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return false;
+        }
+        long from;
+        int dash = lastEventId.lastIndexOf('-');
+        try {
+            if (dash < 0 || !lastEventId.substring(0, dash).equals(bootId)) {
+                return true;
+            }
+            from = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+        if (from > lastSeq) {
+            return true;
+        }
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        if (from + 1 < oldest) {
+            return true;
+        }
+        for (long s = from + 1; s <= lastSeq; s++) {
+            out.add(ring[(int) (s % ring.length)]);
+        }
+        return false;
+    }
+
+    /**
+     * @param seq sequence number
+     * @return event id as sent to clients
+     */
+    String id(long seq) {
+        return bootId + "-" + seq;
+    }
+
+    // Keep-alive only for idle subscribers; a busy stream is proof of life already
+    private void sendHeartbeat() {
+        for (Subscriber sub : subscribers) {
+            sub.offerHeartbeat();
+        }
+    }
+
+    private SseEmitter.SseEventBuilder event(FeedEvent fe) {
+        return SseEmitter.event().id(id(fe.seq)).name(fe.name).data(fe.data);
+    }
+
+    // Encode once; every subscriber gets the same string
+    private String encode(ProductChangeEvent event) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", event.getType().name());
+        if (event.getProductId() != null) {
+            body.put("productId", event.getProductId());
+        }
+        if (event.getProduct() != null) {
+            body.put("product", event.getProduct());
+        }
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode catalog change", ex);
+        }
+    }
+
+    /**
+     * One open stream: its pending events and whether a feed thread is writing them.
+     * Queue and flags are guarded by the subscriber's own monitor, never by the feed lock
+     * while writing, so publishing never waits on a connection.
+     */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        // Room for the initial replay on top of the live-event bound
+        final int limit;
+        boolean draining;
+        boolean closed;
+
+        Subscriber(SseEmitter emitter, int replay) {
+            this.emitter = emitter;
+            this.limit = queueSize + replay;
+        }
+
+        void offer(FeedEvent fe) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= limit) {
+                    // Too far behind: drop it and let the client resume from its last id
+                    closed = true;
+                    queue.clear();
+                    overflows.incrementAndGet();
+                    subscribers.remove(this);
+                } else {
+                    queue.add(event(fe));
+                }
+            }
+            schedule();
+        }
+
+        void offerHeartbeat() {
+            synchronized (this) {
+                if (closed || draining || !queue.isEmpty()) {
+                    return;
+                }
+                queue.add(SseEmitter.event().comment("keep-alive"));
+            }
+            schedule();
+        }
+
+        // Start a drain unless one is already running for this subscriber
+        void schedule() {
+            synchronized (this) {
+                if (draining || (queue.isEmpty() && !closed)) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RuntimeException ex) {
+                // Shutting down
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            for (int sent = 0; ; sent++) {
+                if (sent == DRAIN_BATCH) {
+                    // Go to the back of the pool's queue so other subscribers get a turn
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    schedule();
+                    return;
+                }
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    if (closed) {
+                        draining = false;
+                        break;
+                    }
+                    next = queue.poll();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException ex) {
+                    // Client went away; the container's error callback may not have fired yet
+                    synchronized (this) {
+                        closed = true;
+                        queue.clear();
+                        draining = false;
+                    }
+                    subscribers.remove(this);
+                    emitter.completeWithError(ex);
+                    return;
+                }
+            }
+            // Closed for overflow: end the response from this thread, never the publisher's
+            emitter.complete();
+        }
+    }
+
+    /** One numbered, pre-encoded feed entry. */
+    static final class FeedEvent {
+        final long seq;
+        final String name;
+        final String data;
+
+        FeedEvent(long seq, String name, String data) {
+            this.seq = seq;
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
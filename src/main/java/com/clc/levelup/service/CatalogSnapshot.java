@@ -0,0 +1,33 @@
+package com.clc.levelup.service;
+
+/**
+ * Immutable, pre-encoded copy of the full {@code /api/products} response.
+ * Holds the JSON body as bytes in identity and gzip form, tagged with the
+ * catalog ETag it was built for. Never modified after construction.
+ */
+public final class CatalogSnapshot {
+
+    private final String etag;
+    private final int productCount;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    CatalogSnapshot(String etag, int productCount, byte[] json, byte[] gzip) {
+        this.etag = etag;
+        this.productCount = productCount;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /** @return list ETag the snapshot was built for */
+    public String getEtag() { return etag; }
+
+    /** @return number of products in the body */
+    public int getProductCount() { return productCount; }
+
+    /** @return uncompressed JSON array (shared; do not modify) */
+    public byte[] getJson() { return json; }
+
+    /** @return gzip-compressed JSON array (shared; do not modify) */
+    public byte[] getGzip() { return gzip; }
+}
@@ -0,0 +1,137 @@
+package com.clc.levelup.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the unfiltered product list pre-serialized.
+ * <p>
+ * After startup and after every committed catalog change, a background thread
+ * loads the catalog, encodes it once with the application's {@link ObjectMapper}
+ * and gzips it. It then swaps the new {@link CatalogSnapshot} in through a
+ * volatile reference. Request threads only read that reference and write the
+ * bytes. A snapshot is only handed out while its ETag still matches the live
+ * catalog version; until the rebuild lands, callers fall back to the normal
+ * path, so a client never gets an old body under a new tag.
+ * </p>
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ProductService products;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper mapper;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Set while a rebuild is queued but not yet started
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile CatalogSnapshot current;
+
+    /**
+     * @param products product service the snapshot is built from
+     * @param catalogVersion source of the list ETag
+     * @param mapper application JSON mapper (same output as the regular endpoint)
+     */
+    public CatalogSnapshotService(ProductService products, CatalogVersion catalogVersion, ObjectMapper mapper) {
+        this.products = products;
+        this.catalogVersion = catalogVersion;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Build the first snapshot once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        requestRebuild();
+    }
+
+    /**
+     * Rebuild after any committed catalog or stock change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Snapshot for the current catalog version.
+     * A stale snapshot also queues a rebuild, so the cache heals itself even if
+     * the version moved after the last build started.
+     * @return current snapshot, or null when none matches the live version yet
+     */
+    public CatalogSnapshot current() {
+        CatalogSnapshot s = current;
+        if (s != null && s.getEtag().equals(catalogVersion.listEtag(""))) {
+            return s;
+        }
+        requestRebuild();
+        return null;
+    }
+
+    /**
+     * Stop the rebuild thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    current = build();
+                } catch (RuntimeException ex) {
+                    log.warn("Catalog snapshot rebuild failed; serving the regular path", ex);
+                }
+            });
+        }
+    }
+
+    private CatalogSnapshot build() {
+        // Tag first: the body can only be newer than the tag, never older
+        String etag = catalogVersion.listEtag("");
+        List<Product> all = new ArrayList<>();
+        products.findAll().forEach(all::add);
+        try {
+            byte[] json = mapper.writeValueAsBytes(all);
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+                gz.write(json);
+            }
+            return new CatalogSnapshot(etag, all.size(), json, buf.toByteArray());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
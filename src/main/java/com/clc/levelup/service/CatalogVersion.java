@@ -0,0 +1,174 @@
+package com.clc.levelup.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tracks a monotonic catalog version and per-product modification stamps
+ * so the products API can answer conditional GETs without loading rows.
+ * <p>
+ * The version is bumped on every committed {@link ProductChangeEvent}. ETags
+ * combine it with a per-boot id, so a restart never reuses an old tag.
+ * Last-Modified times are seeded from {@code products.updated_at} (falling back
+ * to {@code created_at}) and advanced to the wall clock on each change.
+ * </p>
+ */
+@Component
+public class CatalogVersion {
+
+    private final JdbcTemplate jdbc;
+
+    // Distinguishes tags issued by this process from tags issued before a restart
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    // Product id -> stamp (version at last change, last-modified millis)
+    private final ConcurrentHashMap<Long, Stamp> stamps = new ConcurrentHashMap<>();
+
+    // Newest modification time across the catalog, deletes included
+    private volatile long catalogLastModified;
+
+    /**
+     * @param jdbc template used for the startup seed query
+     */
+    public CatalogVersion(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Seed per-product modification times from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        seed(0L);
+    }
+
+    /**
+     * Record one committed catalog or stock change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        long v = version.incrementAndGet();
+        long now = System.currentTimeMillis();
+        if (event.getType() == ProductChangeEvent.Type.RELOADED) {
+            // Every product gets the new version, so no pre-reload tag can match
+            seed(v);
+        } else if (event.getType() == ProductChangeEvent.Type.DELETED) {
+            stamps.remove(event.getProductId());
+        } else {
+            stamps.compute(event.getProductId(),
+                    (id, old) -> new Stamp(v, after(old == null ? 0L : old.modifiedAt, now)));
+        }
+        synchronized (this) {
+            catalogLastModified = after(catalogLastModified, now);
+        }
+    }
+
+    /**
+     * Strong ETag for a catalog listing.
+     * The variant is folded in as a SHA-256 digest, so two different listings
+     * never share a tag (a 32-bit hash would collide and earn a wrong 304).
+     * @param variant query parameters that shape the listing ("" for the full list)
+     * @return quoted ETag value
+     */
+    public String listEtag(String variant) {
+        String tag = bootId + "-" + version.get();
+        if (variant != null && !variant.isEmpty()) {
+            tag += "-" + digest(variant);
+        }
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Newest modification time across the catalog.
+     * @return epoch millis, or -1 when unknown
+     */
+    public long catalogLastModified() {
+        long lm = catalogLastModified;
+        return lm == 0L ? -1L : lm;
+    }
+
+    /**
+     * Strong ETag for one product.
+     * @param id product id
+     * @return quoted ETag, or null when the product is unknown
+     */
+    public String productEtag(long id) {
+        Stamp s = stamps.get(id);
+        return s == null ? null : "\"" + bootId + "-" + id + "-" + s.version + "\"";
+    }
+
+    /**
+     * Last modification time of one product.
+     * @param id product id
+     * @return epoch millis, or -1 when unknown
+     */
+    public long productLastModified(long id) {
+        Stamp s = stamps.get(id);
+        return s == null || s.modifiedAt == 0L ? -1L : s.modifiedAt;
+    }
+
+    // (Re)read every product's modification time, tagging all stamps with the given version
+    private void seed(long v) {
+        Set<Long> seen = new HashSet<>();
+        jdbc.query("SELECT id, COALESCE(updated_at, created_at) AS modified FROM products", rs -> {
+            Timestamp ts = rs.getTimestamp("modified");
+            long millis = ts == null ? 0L : ts.getTime();
+            long id = rs.getLong("id");
+            seen.add(id);
+            stamps.put(id, new Stamp(v, millis));
+            advanceCatalog(millis);
+        });
+        stamps.keySet().retainAll(seen);
+    }
+
+    // SHA-256 of the text, base64url without padding (ETag-safe characters)
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // HTTP dates have one-second resolution, so a change must move the stamp into a
+    // later second; otherwise If-Modified-Since would hide two edits in the same second.
+    private static long after(long previous, long now) {
+        long nextSecond = previous - previous % 1000L + 1000L;
+        return previous == 0L ? now : Math.max(now, nextSecond);
+    }
+
+    private synchronized void advanceCatalog(long millis) {
+        if (millis > catalogLastModified) {
+            catalogLastModified = millis;
+        }
+    }
+
+    /** Version and wall-clock time of a product's last change. */
+    private static final class Stamp {
+        final long version;
+        final long modifiedAt;
+
+        Stamp(long version, long modifiedAt) {
+            this.version = version;
+            this.modifiedAt = modifiedAt;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.clc.levelup.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a bulk product import, serialized by the import endpoint.
+ * Only the first {@link #MAX_REPORTED_ERRORS} row errors are listed;
+ * {@link #getFailed()} always has the full count.
+ */
+public class ImportSummary {
+
+    /** Cap on listed row errors so a bad file cannot blow up the response. */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long rowsRead;
+    private long upserted;
+    private long failed;
+    private int batches;
+    private long elapsedMillis;
+    private String abortedReason;
+    private final List<RowError> errors = new ArrayList<>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void batchWritten(int rows) {
+        batches++;
+        upserted += rows;
+    }
+
+    void rowFailed(long row, String partNumber, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, partNumber, message));
+        }
+    }
+
+    void abort(String reason) {
+        this.abortedReason = reason;
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /** @return data rows parsed from the input */
+    public long getRowsRead() { return rowsRead; }
+
+    /** @return rows inserted or updated */
+    public long getUpserted() { return upserted; }
+
+    /** @return rows rejected by validation or by the database */
+    public long getFailed() { return failed; }
+
+    /** @return number of JDBC batches sent */
+    public int getBatches() { return batches; }
+
+    /** @return wall-clock import time in milliseconds */
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /** @return upserted rows per second (0 for an empty import) */
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? upserted : upserted * 1000L / elapsedMillis;
+    }
+
+    /** @return why the import stopped early (malformed input), or null if it ran to the end */
+    public String getAbortedReason() { return abortedReason; }
+
+    /** @return true when the input could not be read to the end */
+    public boolean isAborted() { return abortedReason != null; }
+
+    /** @return first row errors, in input order */
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    /**
+     * One rejected input row.
+     */
+    public static final class RowError {
+        private final long row;
+        private final String partNumber;
+        private final String message;
+
+        RowError(long row, String partNumber, String message) {
+            this.row = row;
+            this.partNumber = partNumber;
+            this.message = message;
+        }
+
+        /** @return CSV line number or 1-based JSON element index */
+        public long getRow() { return row; }
+
+        /** @return part number from the row, if it had one */
+        public String getPartNumber() { return partNumber; }
+
+        /** @return reason the row was rejected */
+        public String getMessage() { return message; }
+    }
+}
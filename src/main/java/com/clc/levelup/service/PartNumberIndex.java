@@ -0,0 +1,128 @@
+package com.clc.levelup.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * In-memory hash index from part number to product id.
+ * <p>
+ * Loaded once at startup with a two-column query and then kept in sync from
+ * committed {@link ProductChangeEvent}s, so a SKU lookup is one hash probe
+ * followed by a cached id lookup. Keys are trimmed and lower-cased, matching
+ * the case-insensitive collation behind {@code uk_products_partNumber}.
+ * </p>
+ */
+@Component
+public class PartNumberIndex {
+
+    private final JdbcTemplate jdbc;
+
+    // Normalized part number -> id, plus the reverse so a renamed SKU drops its old key
+    private final ConcurrentHashMap<String, Long> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> keys = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * @param jdbc template used for the startup load
+     */
+    public PartNumberIndex(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Load every part number at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        jdbc.query("SELECT id, partNumber FROM products", rs -> {
+            put(rs.getLong("id"), rs.getString("partNumber"));
+        });
+        loaded = true;
+    }
+
+    /**
+     * Apply one committed catalog change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                put(event.getProductId(), event.getProduct().getPartNumber());
+                break;
+            case DELETED:
+                remove(event.getProductId());
+                break;
+            case RELOADED:
+                Map<Long, String> fresh = new HashMap<>();
+                for (Product p : event.getCatalog()) {
+                    fresh.put(p.getId(), p.getPartNumber());
+                }
+                keys.keySet().removeIf(id -> !fresh.containsKey(id));
+                ids.values().removeIf(id -> !fresh.containsKey(id));
+                fresh.forEach(this::put);
+                break;
+            default:
+                // Stock changes never touch the part number
+                break;
+        }
+    }
+
+    /**
+     * Resolve a part number to a product id.
+     * @param partNumber part number (case and surrounding spaces ignored)
+     * @return product id, or null when unknown
+     */
+    public Long idOf(String partNumber) {
+        return partNumber == null ? null : ids.get(normalize(partNumber));
+    }
+
+    /**
+     * Whether the startup load has finished; before that a miss proves nothing.
+     * @return true once the index is authoritative
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Normalize a part number the way the index keys it.
+     * @param partNumber raw part number
+     * @return trimmed, lower-cased key
+     */
+    static String normalize(String partNumber) {
+        return partNumber.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Writers are serialized by the synchronized entry points, readers only touch `ids`
+    private void put(Long id, String partNumber) {
+        if (id == null || partNumber == null) {
+            return;
+        }
+        String key = normalize(partNumber);
+        String old = keys.put(id, key);
+        if (old != null && !old.equals(key)) {
+            ids.remove(old, id);
+        }
+        ids.put(key, id);
+    }
+
+    private void remove(Long id) {
+        String old = keys.remove(id);
+        if (old != null) {
+            ids.remove(old, id);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.clc.levelup.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Set-based price and stock changes across many products.
+ * <p>
+ * Each adjustment is a single {@code UPDATE ... WHERE} statement run in its
+ * own transaction, so a whole category reprices in one round trip instead of
+ * one {@code existsById} plus one {@code save} per product. The same
+ * transaction then collects the ids the WHERE clause matched. After the commit
+ * those rows are re-read in one IN query and published as UPDATED (price) or
+ * STOCK_CHANGED (stock) events, so read models and feed subscribers only see
+ * the products that changed. Only a match larger than {@link #RELOAD_THRESHOLD}
+ * clears the product cache and publishes one RELOADED event instead.
+ * </p>
+ */
+@Service
+public class ProductBulkService {
+
+    /** Largest id list accepted in one request (keeps the IN list sane). */
+    public static final int MAX_IDS = 10_000;
+
+    /** Matches above this many rows reload the whole catalog instead of publishing per product. */
+    public static final int RELOAD_THRESHOLD = ProductService.MAX_ID_BATCH;
+
+    // Same bounds as DECIMAL(10,2) in levelup_db.sql
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    // Upper bound of the INT quantity column; strict mode rejects anything larger
+    private static final long MAX_QUANTITY = Integer.MAX_VALUE;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProductCache cache;
+    private final ProductService products;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * @param jdbc named-parameter JDBC access (for the IN list)
+     * @param txManager transaction manager for the update
+     * @param cache product cache, cleared after each change
+     * @param products product service, re-reads the changed rows and publishes their events
+     * @param events publisher used to tell read models to reload after a large change
+     */
+    public ProductBulkService(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager txManager,
+                              ProductCache cache, ProductService products, ApplicationEventPublisher events) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.cache = cache;
+        this.products = products;
+        this.events = events;
+    }
+
+    /**
+     * Apply one bulk adjustment.
+     * @param adj operation, value and selector
+     * @return number of rows the statement matched
+     * @throws IllegalArgumentException if the operation, value or selector is invalid
+     */
+    public int adjust(BulkAdjustment adj) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = statement(adj, params);
+        String select = selectIds(adj, params);
+
+        // Same WHERE, same transaction: the selectors do not touch the columns being changed
+        Changed changed = Objects.requireNonNull(tx.execute(status -> {
+            int count = jdbc.update(sql, params);
+            List<Long> ids = count > 0 && count <= RELOAD_THRESHOLD
+                    ? jdbc.queryForList(select, params, Long.class)
+                    : List.of();
+            return new Changed(count, ids);
+        }));
+
+        if (changed.count > RELOAD_THRESHOLD) {
+            cache.clear();
+            // One catalog read shared by every listener
+            List<Product> all = new ArrayList<>();
+            products.findAll().forEach(all::add);
+            events.publishEvent(ProductChangeEvent.reloaded(Collections.unmodifiableList(all)));
+        } else if (isStockOperation(adj)) {
+            products.stockChanged(changed.ids);
+        } else {
+            products.updatedOutside(changed.ids);
+        }
+        return changed.count;
+    }
+
+    /**
+     * Build the single UPDATE for an adjustment.
+     * @param adj operation, value and selector
+     * @param params receives the statement's named parameters
+     * @return SQL with named parameters
+     * @throws IllegalArgumentException if the operation, value or selector is invalid
+     */
+    static String statement(BulkAdjustment adj, MapSqlParameterSource params) {
+        // Bump version so edit forms opened before the change get a conflict instead of overwriting it
+        return "UPDATE products SET " + setClause(adj, params) + ", version = version + 1"
+                + " WHERE " + whereClause(adj, params);
+    }
+
+    /**
+     * Build the query for the ids an adjustment's WHERE clause matches.
+     * @param adj operation, value and selector
+     * @param params receives the statement's named parameters
+     * @return SQL with named parameters
+     */
+    static String selectIds(BulkAdjustment adj, MapSqlParameterSource params) {
+        return "SELECT id FROM products WHERE " + whereClause(adj, params);
+    }
+
+    private static boolean isStockOperation(BulkAdjustment adj) {
+        return adj.getOperation() == BulkAdjustment.Operation.ADD_STOCK
+                || adj.getOperation() == BulkAdjustment.Operation.SET_STOCK;
+    }
+
+    private static String setClause(BulkAdjustment adj, MapSqlParameterSource params) {
+        if (adj.getOperation() == null) {
+            throw new IllegalArgumentException("operation is required");
+        }
+        BigDecimal v = adj.getValue();
+        if (v == null) {
+            throw new IllegalArgumentException("value is required");
+        }
+        switch (adj.getOperation()) {
+            case SET_PRICE:
+                if (v.signum() < 0 || v.compareTo(MAX_PRICE) > 0 || v.scale() > 2) {
+                    throw new IllegalArgumentException("price must be between 0.00 and " + MAX_PRICE);
+                }
+                params.addValue("price", v);
+                return "price = :price";
+            case PERCENT_PRICE:
+                if (v.compareTo(HUNDRED.negate()) < 0 || v.compareTo(new BigDecimal("1000")) > 0) {
+                    throw new IllegalArgumentException("percent must be between -100 and 1000");
+                }
+                params.addValue("factor", BigDecimal.ONE.add(v.divide(HUNDRED)));
+                return "price = LEAST(" + MAX_PRICE + ", GREATEST(0, ROUND(price * :factor, 2)))";
+            case ADD_STOCK:
+                params.addValue("delta", wholeNumber(v));
+                // MySQL adds INTs as BIGINT, so clamp the sum into the column's range before it is stored
+                return "quantity = LEAST(" + MAX_QUANTITY + ", GREATEST(0, quantity + :delta))";
+            case SET_STOCK:
+                int qty = wholeNumber(v);
+                if (qty < 0) {
+                    throw new IllegalArgumentException("stock must be 0 or more");
+                }
+                params.addValue("qty", qty);
+                return "quantity = :qty";
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + adj.getOperation());
+        }
+    }
+
+    private static String whereClause(BulkAdjustment adj, MapSqlParameterSource params) {
+        boolean byIds = adj.getIds() != null && !adj.getIds().isEmpty();
+        boolean byCategory = adj.getCategory() != null && !adj.getCategory().isBlank();
+        boolean byPattern = adj.getPartNumberPattern() != null && !adj.getPartNumberPattern().isBlank();
+        int selectors = (byIds ? 1 : 0) + (byCategory ? 1 : 0) + (byPattern ? 1 : 0);
+        if (selectors != 1) {
+            throw new IllegalArgumentException("Give exactly one of ids, category or partNumberPattern");
+        }
+
+        if (byIds) {
+            if (adj.getIds().size() > MAX_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_IDS + " ids per request");
+            }
+            params.addValue("ids", adj.getIds());
+            return "id IN (:ids)";
+        }
+        if (byCategory) {
+            params.addValue("category", adj.getCategory().trim());
+            return "category = :category";
+        }
+        params.addValue("pattern", toLike(adj.getPartNumberPattern().trim()));
+        return "partNumber LIKE :pattern ESCAPE '!'";
+    }
+
+    // "LU-TS-*" -> "LU-TS-%", with literal % and _ escaped
+    private static String toLike(String glob) {
+        StringBuilder sb = new StringBuilder(glob.length() + 4);
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                sb.append('%');
+            } else if (c == '%' || c == '_' || c == '!') {
+                sb.append('!').append(c);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int wholeNumber(BigDecimal v) {
+        try {
+            return v.intValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("stock amount must be a whole number");
+        }
+    }
+
+    /** Rows matched by one adjustment, and their ids when few enough to publish one by one. */
+    private static final class Changed {
+        final int count;
+        final List<Long> ids;
+
+        Changed(int count, List<Long> ids) {
+            this.count = count;
+            this.ids = ids;
+        }
+    }
+}
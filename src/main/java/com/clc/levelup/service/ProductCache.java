@@ -0,0 +1,244 @@
+package com.clc.levelup.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Bounded in-process read-through cache for {@link Product} rows.
+ * <p>
+ * Entries are kept in least-recently-used order and expire after a fixed TTL.
+ * The full catalog list is cached as one extra slot, but only while the catalog
+ * fits inside the size limit. Every invalidation bumps a generation counter so a
+ * reader that loaded data before a write cannot put stale rows back afterwards.
+ * </p>
+ * Cached products are shared instances; callers must treat them as read-only.
+ */
+@Component
+public class ProductCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // Access-ordered map gives us LRU eviction for free
+    private final LinkedHashMap<Long, Entry<Product>> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Separate slot for the findAll() result
+    private Entry<List<Product>> all;
+
+    // Incremented on every invalidation (see class comment)
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create the cache with limits from application.properties.
+     * @param maxSize maximum number of cached products
+     * @param ttlSeconds time-to-live for each entry in seconds
+     */
+    public ProductCache(@Value("${levelup.products.cache.max-size:1000}") int maxSize,
+                        @Value("${levelup.products.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+    }
+
+    /**
+     * Current generation, captured by readers before they go to the database.
+     * @return generation value to pass back into the put methods
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Look up a product by id.
+     * @param id product id
+     * @return cached product, or empty on a miss or expired entry
+     */
+    public synchronized Optional<Product> get(Long id) {
+        Entry<Product> e = entries.get(id);
+        if (e == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (e.isExpired()) {
+            entries.remove(id);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(e.value);
+    }
+
+    /**
+     * Store a product loaded from the database.
+     * Ignored when an invalidation happened after {@code loadedAt} was captured.
+     * @param p product to cache
+     * @param loadedAt generation captured before the database read
+     */
+    public synchronized void put(Product p, long loadedAt) {
+        if (p == null || p.getId() == null || loadedAt != generation) {
+            return;
+        }
+        entries.put(p.getId(), new Entry<>(p, ttlNanos));
+        trim();
+    }
+
+    /**
+     * Get the cached full catalog list.
+     * @return unmodifiable list, or empty on a miss
+     */
+    public synchronized Optional<List<Product>> getAll() {
+        if (all == null || all.isExpired()) {
+            if (all != null) {
+                evictions.incrementAndGet();
+                all = null;
+            }
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(all.value);
+    }
+
+    /**
+     * Store the full catalog list when it fits inside the size limit.
+     * Each product is also cached individually so detail lookups hit.
+     * @param products all products as loaded from the database
+     * @param loadedAt generation captured before the database read
+     * @return the list callers should use (unmodifiable)
+     */
+    public synchronized List<Product> putAll(Iterable<Product> products, long loadedAt) {
+        List<Product> list = new ArrayList<>();
+        products.forEach(list::add);
+        List<Product> frozen = Collections.unmodifiableList(list);
+
+        if (loadedAt == generation && frozen.size() <= maxSize) {
+            all = new Entry<>(frozen, ttlNanos);
+            for (Product p : frozen) {
+                entries.put(p.getId(), new Entry<>(p, ttlNanos));
+            }
+            trim();
+        }
+        return frozen;
+    }
+
+    /**
+     * Drop one product and the cached full list.
+     * @param id product id
+     */
+    public synchronized void invalidate(Long id) {
+        generation++;
+        if (id != null) {
+            entries.remove(id);
+        }
+        all = null;
+    }
+
+    /**
+     * Drop several products and the cached full list in one step.
+     * @param ids product ids
+     */
+    public synchronized void invalidateAll(Collection<Long> ids) {
+        generation++;
+        ids.forEach(entries::remove);
+        all = null;
+    }
+
+    /**
+     * Drop everything.
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        all = null;
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     * @return immutable stats
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), maxSize);
+    }
+
+    // Evict least-recently-used entries until we are back under the limit
+    private void trim() {
+        Iterator<Map.Entry<Long, Entry<Product>>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /** Value plus its expiry deadline. */
+    private static final class Entry<T> {
+        final T value;
+        final long expiresAt;
+
+        Entry(T value, long ttlNanos) {
+            this.value = value;
+            this.expiresAt = System.nanoTime() + ttlNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+
+    /**
+     * Read-only view of the cache counters, serialized by the stats endpoint.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxSize;
+
+        Stats(long hits, long misses, long evictions, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        /** @return number of lookups answered from the cache */
+        public long getHits() { return hits; }
+
+        /** @return number of lookups that went to the database */
+        public long getMisses() { return misses; }
+
+        /** @return number of entries dropped for size or TTL */
+        public long getEvictions() { return evictions; }
+
+        /** @return current number of cached products */
+        public int getSize() { return size; }
+
+        /** @return configured size limit */
+        public int getMaxSize() { return maxSize; }
+
+        /** @return hits divided by total lookups (0 when idle) */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+}
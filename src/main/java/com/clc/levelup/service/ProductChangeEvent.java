@@ -0,0 +1,95 @@
+package com.clc.levelup.service;
+
+import java.util.List;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Application event published by {@link ProductService} after a catalog write.
+ * <p>
+ * In-memory read models (search index, facets, and so on) listen with
+ * {@code @TransactionalEventListener}, so they only see changes that actually
+ * committed. Each listener keeps its own copy of the fields it needs, so a
+ * delete only has to carry the id.
+ * </p>
+ */
+public class ProductChangeEvent {
+
+    /** Kind of change. */
+    public enum Type {
+        /** A new product was inserted. */
+        CREATED,
+        /** An existing product was saved. */
+        UPDATED,
+        /** A product was removed; only the id is set. */
+        DELETED,
+        /** Stock changed outside ProductService (order trigger); product holds the fresh row. */
+        STOCK_CHANGED,
+        /** Many rows changed at once (bulk import); carries the freshly loaded catalog instead of one product. */
+        RELOADED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final Product product;
+    private final List<Product> catalog;
+
+    private ProductChangeEvent(Type type, Long productId, Product product, List<Product> catalog) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.catalog = catalog;
+    }
+
+    /**
+     * @param p newly created product
+     * @return CREATED event
+     */
+    public static ProductChangeEvent created(Product p) {
+        return new ProductChangeEvent(Type.CREATED, p.getId(), p, null);
+    }
+
+    /**
+     * @param p product state after the update
+     * @return UPDATED event
+     */
+    public static ProductChangeEvent updated(Product p) {
+        return new ProductChangeEvent(Type.UPDATED, p.getId(), p, null);
+    }
+
+    /**
+     * @param id id of the removed product
+     * @return DELETED event
+     */
+    public static ProductChangeEvent deleted(Long id) {
+        return new ProductChangeEvent(Type.DELETED, id, null, null);
+    }
+
+    /**
+     * @param p product row re-read after its stock changed
+     * @return STOCK_CHANGED event
+     */
+    public static ProductChangeEvent stockChanged(Product p) {
+        return new ProductChangeEvent(Type.STOCK_CHANGED, p.getId(), p, null);
+    }
+
+    /**
+     * @param catalog every product, loaded once after the bulk change and shared by all listeners
+     * @return RELOADED event
+     */
+    public static ProductChangeEvent reloaded(List<Product> catalog) {
+        return new ProductChangeEvent(Type.RELOADED, null, null, catalog);
+    }
+
+    /** @return kind of change */
+    public Type getType() { return type; }
+
+    /** @return affected product id, or null for RELOADED */
+    public Long getProductId() { return productId; }
+
+    /** @return product state after the change, or null for DELETED and RELOADED */
+    public Product getProduct() { return product; }
+
+    /** @return full catalog for RELOADED (read-only), otherwise null */
+    public List<Product> getCatalog() { return catalog; }
+}
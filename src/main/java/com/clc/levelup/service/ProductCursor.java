@@ -0,0 +1,100 @@
+package com.clc.levelup.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Opaque position in a keyset-paginated product listing.
+ * <p>
+ * A cursor remembers the sort key of the last row on a page, so the next page
+ * starts with {@code WHERE key > last} instead of an OFFSET scan. The token is
+ * URL-safe Base64 so clients treat it as an opaque string.
+ * </p>
+ */
+public final class ProductCursor {
+
+    // Separates fields inside the encoded token; cannot appear in product names
+    private static final char SEP = '\u0000';
+
+    private final ProductSort sort;
+    private final long lastId;
+    private final String lastName;
+
+    private ProductCursor(ProductSort sort, long lastId, String lastName) {
+        this.sort = sort;
+        this.lastId = lastId;
+        this.lastName = lastName;
+    }
+
+    /**
+     * Build the cursor that follows the given row.
+     * @param sort sort order of the listing
+     * @param last last product on the current page
+     * @return cursor pointing just after {@code last}
+     */
+    public static ProductCursor after(ProductSort sort, Product last) {
+        return new ProductCursor(sort, last.getId(), sort == ProductSort.NAME ? last.getName() : null);
+    }
+
+    /**
+     * Build the cursor that follows a row known only by its sort keys
+     * (projected listings that never build a {@code Product}).
+     * @param sort sort order of the listing
+     * @param lastId id of the last row on the current page
+     * @param lastName name of that row (only used for NAME sort)
+     * @return cursor pointing just after that row
+     */
+    public static ProductCursor after(ProductSort sort, long lastId, String lastName) {
+        return new ProductCursor(sort, lastId, sort == ProductSort.NAME ? lastName : null);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     * @param token opaque cursor string from a client
+     * @param sort sort order the client asked for; must match the token
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed or for another sort
+     */
+    public static ProductCursor decode(String token, ProductSort sort) {
+        ProductSort tokenSort;
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split(String.valueOf(SEP), -1);
+            tokenSort = ProductSort.valueOf(parts[0]);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor.", ex);
+        }
+        // Checked outside the try so the client sees why a well-formed cursor was refused
+        if (tokenSort != sort) {
+            throw new IllegalArgumentException("Cursor does not match sort order.");
+        }
+        try {
+            long id = Long.parseLong(parts[1]);
+            String name = (sort == ProductSort.NAME) ? parts[2] : null;
+            return new ProductCursor(sort, id, name);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor.", ex);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque URL-safe token.
+     * @return token string
+     */
+    public String encode() {
+        String raw = sort.name() + SEP + lastId + (lastName != null ? SEP + lastName : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @return sort order this cursor belongs to */
+    public ProductSort getSort() { return sort; }
+
+    /** @return id of the last row already returned */
+    public long getLastId() { return lastId; }
+
+    /** @return name of the last row already returned (NAME sort only) */
+    public String getLastName() { return lastName; }
+}
@@ -0,0 +1,119 @@
+package com.clc.levelup.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams the product catalog straight from a JDBC cursor to an output stream.
+ * <p>
+ * Rows are read with a forward-only, read-only statement whose fetch size is
+ * {@link Integer#MIN_VALUE}, which tells MySQL Connector/J to stream rows one
+ * at a time instead of buffering the whole result. Each row is written as one
+ * JSON object per line (NDJSON) without building {@code Product} objects, so
+ * heap use stays flat however large the catalog grows.
+ * </p>
+ */
+@Service
+public class ProductExportService {
+
+    // Connector/J treats MIN_VALUE as "stream row by row"
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    // Push bytes to the client every so many rows so downstream can start parsing
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final String EXPORT_SQL =
+        "SELECT id, name, description, manufacturer, category, partNumber, quantity, price, version " +
+        "FROM products ORDER BY id";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+
+    /**
+     * Inject JDBC access and the application's JSON mapper.
+     * @param jdbc configured JdbcTemplate
+     * @param mapper Jackson mapper (shares the app's JSON settings)
+     */
+    public ProductExportService(JdbcTemplate jdbc, ObjectMapper mapper) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Write every product as newline-delimited JSON.
+     * Field names match the regular {@code /api/products} JSON, including {@code version}.
+     * The caller owns the stream and is responsible for closing it.
+     * @param out destination stream (usually the HTTP response body)
+     * @return number of rows written
+     * @throws IOException if writing to the stream fails
+     */
+    public long exportNdjson(OutputStream out) throws IOException {
+        AtomicLong rows = new AtomicLong();
+
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // Keep the response open; the servlet container closes it
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated by '\n' below, not Jackson's default space
+            gen.setRootValueSeparator(null);
+
+            RowCallbackHandler writeRow = rs -> {
+                try {
+                    writeProduct(gen, rs);
+                    if (rows.incrementAndGet() % FLUSH_EVERY_ROWS == 0) {
+                        gen.flush();
+                    }
+                } catch (IOException ex) {
+                    // Client went away; abort the query instead of reading the rest
+                    throw new UncheckedIOException(ex);
+                }
+            };
+
+            try {
+                jdbc.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(
+                        EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(STREAMING_FETCH_SIZE);
+                    return ps;
+                }, writeRow);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            gen.flush();
+        }
+        return rows.get();
+    }
+
+    /**
+     * Write the current row as one JSON object followed by a newline.
+     * @param gen JSON generator bound to the output
+     * @param rs result set positioned on a row
+     * @throws IOException on write failure
+     * @throws java.sql.SQLException on read failure
+     */
+    private static void writeProduct(JsonGenerator gen, ResultSet rs) throws IOException, java.sql.SQLException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", rs.getLong("id"));
+        gen.writeStringField("name", rs.getString("name"));
+        gen.writeStringField("description", rs.getString("description"));
+        gen.writeStringField("manufacturer", rs.getString("manufacturer"));
+        gen.writeStringField("category", rs.getString("category"));
+        gen.writeStringField("partNumber", rs.getString("partNumber"));
+        gen.writeNumberField("quantity", rs.getInt("quantity"));
+        gen.writeNumberField("price", rs.getBigDecimal("price"));
+        gen.writeNumberField("version", rs.getLong("version"));
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+}
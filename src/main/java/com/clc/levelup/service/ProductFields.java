@@ -0,0 +1,148 @@
+package com.clc.levelup.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * Parsed {@code fields=} selection for the products API.
+ * <p>
+ * Only whitelisted JSON field names are accepted, and each maps to a fixed
+ * column, so client input never reaches the SQL text. Named projections
+ * expand to a preset list: {@code summary} (id, name, price, quantity) and
+ * {@code full} (every field). {@code id} is always included.
+ * </p>
+ */
+public final class ProductFields {
+
+    // JSON field name -> products column, in output order
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+    static {
+        COLUMNS.put("id", "id");
+        COLUMNS.put("name", "name");
+        COLUMNS.put("description", "description");
+        COLUMNS.put("manufacturer", "manufacturer");
+        COLUMNS.put("category", "category");
+        COLUMNS.put("partNumber", "partNumber");
+        COLUMNS.put("quantity", "quantity");
+        COLUMNS.put("price", "price");
+        COLUMNS.put("version", "version");
+    }
+
+    private static final Map<String, List<String>> PROJECTIONS = Map.of(
+        "summary", List.of("id", "name", "price", "quantity"),
+        "full", new ArrayList<>(COLUMNS.keySet()));
+
+    private final List<String> fields;
+
+    private ProductFields(List<String> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Parse a comma-separated list of field names and/or projection names.
+     * @param spec e.g. "summary", "id,name,price" or "summary,category"
+     * @return selection in canonical column order
+     * @throws IllegalArgumentException on an unknown name or an empty list
+     */
+    public static ProductFields parse(String spec) {
+        Set<String> wanted = new LinkedHashSet<>();
+        wanted.add("id");
+        if (spec != null) {
+            for (String raw : spec.split(",")) {
+                String token = raw.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                List<String> projection = PROJECTIONS.get(token.toLowerCase(Locale.ROOT));
+                if (projection != null) {
+                    wanted.addAll(projection);
+                } else if (COLUMNS.containsKey(token)) {
+                    wanted.add(token);
+                } else {
+                    throw new IllegalArgumentException("Unknown field: " + token);
+                }
+            }
+        }
+        // Keep the same field order as the full Product JSON
+        List<String> ordered = new ArrayList<>();
+        for (String f : COLUMNS.keySet()) {
+            if (wanted.contains(f)) {
+                ordered.add(f);
+            }
+        }
+        return new ProductFields(ordered);
+    }
+
+    /** @return selected JSON field names in output order */
+    public List<String> names() {
+        return fields;
+    }
+
+    /**
+     * SELECT list for the selected fields plus any extra columns the query needs.
+     * @param extra columns required internally (for example the sort key)
+     * @return comma-separated column list
+     */
+    String selectList(String... extra) {
+        Set<String> cols = new LinkedHashSet<>();
+        for (String f : fields) {
+            cols.add(COLUMNS.get(f));
+        }
+        Collections.addAll(cols, extra);
+        return String.join(", ", cols);
+    }
+
+    /**
+     * @param field JSON field name
+     * @return matching column
+     */
+    static String column(String field) {
+        return COLUMNS.get(field);
+    }
+
+    /**
+     * Copy the selected fields out of an already loaded product.
+     * Used when the rows come from memory rather than a projected query.
+     * @param p product
+     * @return selected fields in output order
+     */
+    public Map<String, Object> project(Product p) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String f : fields) {
+            switch (f) {
+                case "id": row.put(f, p.getId()); break;
+                case "name": row.put(f, p.getName()); break;
+                case "description": row.put(f, p.getDescription()); break;
+                case "manufacturer": row.put(f, p.getManufacturer()); break;
+                case "category": row.put(f, p.getCategory()); break;
+                case "partNumber": row.put(f, p.getPartNumber()); break;
+                case "quantity": row.put(f, p.getQuantity()); break;
+                case "price": row.put(f, p.getPrice()); break;
+                case "version": row.put(f, p.getVersion()); break;
+                default: throw new IllegalStateException("Unmapped field: " + f);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @param field JSON field name
+     * @return true when the field is part of this selection
+     */
+    public boolean contains(String field) {
+        return fields.contains(field);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+}
@@ -0,0 +1,370 @@
+package com.clc.levelup.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.clc.levelup.model.Product;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk product import from CSV or JSON, upserting on {@code partNumber}.
+ * <p>
+ * Input is parsed one row at a time. Valid rows are collected into batches of
+ * {@link #BATCH_SIZE} and sent with a single JDBC batch of
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE} (rewritten into multi-row inserts
+ * by Connector/J). Parsing waits while a batch is being written, so a fast
+ * client can never pile up more than one batch in memory. If the database
+ * rejects a batch, that batch is retried row by row so the bad rows can be
+ * reported and the good ones still land.
+ * </p>
+ * Each batch commits on its own; an aborted import keeps the rows already written.
+ */
+@Service
+public class ProductImportService {
+
+    /** Rows per JDBC batch. */
+    static final int BATCH_SIZE = 1000;
+
+    // Same column list and update rule as seed_products.sql (unchanged rows keep their version)
+    private static final String UPSERT_SQL =
+        "INSERT INTO products (name, description, manufacturer, category, partNumber, quantity, price) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        // Version first: assignments run left to right, and it must compare the old values
+        "version = IF(name <=> VALUES(name) AND description <=> VALUES(description) " +
+        "AND manufacturer <=> VALUES(manufacturer) AND category <=> VALUES(category) " +
+        "AND quantity <=> VALUES(quantity) AND price <=> VALUES(price), version, version + 1), " +
+        "name = VALUES(name), description = VALUES(description), " +
+        "manufacturer = VALUES(manufacturer), category = VALUES(category), " +
+        "quantity = VALUES(quantity), price = VALUES(price)";
+
+    // Column limits from levelup_db.sql, checked before the row reaches MySQL
+    private static final int MAX_NAME = 128;
+    private static final int MAX_DESCRIPTION = 512;
+    private static final int MAX_MANUFACTURER = 128;
+    private static final int MAX_CATEGORY = 64;
+    private static final int MAX_PART_NUMBER = 64;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+    private final ProductCache cache;
+    private final ApplicationEventPublisher events;
+    private final ProductService products;
+
+    /**
+     * @param jdbc configured JdbcTemplate
+     * @param mapper Jackson mapper used to parse JSON input
+     * @param cache product cache, cleared after an import
+     * @param events publisher used to tell read models to reload
+     * @param products product service, used for the post-import catalog read
+     */
+    public ProductImportService(JdbcTemplate jdbc, ObjectMapper mapper, ProductCache cache,
+                                ApplicationEventPublisher events, ProductService products) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.events = events;
+        this.products = products;
+    }
+
+    /**
+     * Import CSV with a header row naming the columns
+     * (name, description, manufacturer, category, partNumber, quantity, price; any order).
+     * @param in request body
+     * @param charset body encoding
+     * @return import summary
+     */
+    public ImportSummary importCsv(InputStream in, Charset charset) {
+        ImportSummary summary = new ImportSummary();
+        Batch batch = new Batch(summary);
+        long started = System.nanoTime();
+        try {
+            CsvRecordReader csv = new CsvRecordReader(new BufferedReader(new InputStreamReader(in, charset), 64 * 1024));
+            List<String> header = csv.next();
+            if (header == null) {
+                summary.abort("Empty input");
+            } else {
+                Map<String, Integer> columns = columns(header, summary);
+                if (!summary.isAborted()) {
+                    List<String> record;
+                    while ((record = csv.next()) != null) {
+                        summary.rowRead();
+                        Row row = new Row(csv.recordLine());
+                        row.name = field(record, columns, "name");
+                        row.description = field(record, columns, "description");
+                        row.manufacturer = field(record, columns, "manufacturer");
+                        row.category = field(record, columns, "category");
+                        row.partNumber = field(record, columns, "partnumber");
+                        row.quantityText = field(record, columns, "quantity");
+                        row.priceText = field(record, columns, "price");
+                        batch.add(row);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            summary.abort("Could not read input: " + ex.getMessage());
+        }
+        return complete(batch, summary, started);
+    }
+
+    /**
+     * Import JSON: either one array of product objects or newline-delimited objects
+     * (the format written by the NDJSON export). Unknown fields such as {@code id} are ignored.
+     * @param in request body
+     * @return import summary
+     */
+    public ImportSummary importJson(InputStream in) {
+        ImportSummary summary = new ImportSummary();
+        Batch batch = new Batch(summary);
+        long started = System.nanoTime();
+        long index = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                index++;
+                summary.rowRead();
+                if (token != JsonToken.START_OBJECT) {
+                    summary.rowFailed(index, null, "Expected a JSON object");
+                    parser.skipChildren();
+                } else {
+                    JsonNode node = parser.readValueAsTree();
+                    Row row = new Row(index);
+                    row.name = text(node, "name");
+                    row.description = text(node, "description");
+                    row.manufacturer = text(node, "manufacturer");
+                    row.category = text(node, "category");
+                    row.partNumber = text(node, "partNumber");
+                    row.quantityText = text(node, "quantity");
+                    row.priceText = text(node, "price");
+                    batch.add(row);
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException ex) {
+            summary.abort("Malformed JSON near element " + Math.max(1, index) + ": " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            summary.abort("Could not read input: " + ex.getMessage());
+        }
+        return complete(batch, summary, started);
+    }
+
+    /**
+     * Flush the last batch, drop cached products and tell read models to reload.
+     */
+    private ImportSummary complete(Batch batch, ImportSummary summary, long started) {
+        batch.flush();
+        summary.finish((System.nanoTime() - started) / 1_000_000L);
+        if (summary.getUpserted() > 0) {
+            cache.clear();
+            // One catalog read shared by every listener instead of one per read model
+            List<Product> all = new ArrayList<>();
+            products.findAll().forEach(all::add);
+            events.publishEvent(ProductChangeEvent.reloaded(Collections.unmodifiableList(all)));
+        }
+        return summary;
+    }
+
+    /**
+     * Map lower-cased header names to column positions; abort if a required column is missing.
+     */
+    private static Map<String, Integer> columns(List<String> header, ImportSummary summary) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Excel likes to start UTF-8 files with a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.put(name, i);
+        }
+        for (String required : new String[] {"name", "description", "manufacturer", "category",
+                                              "partnumber", "quantity", "price"}) {
+            if (!columns.containsKey(required)) {
+                summary.abort("Missing CSV column: " + required);
+                break;
+            }
+        }
+        return columns;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        int i = columns.get(name);
+        return i < record.size() ? record.get(i) : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode v = node.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    /** One parsed input row, validated into typed values before it is batched. */
+    private static final class Row {
+        final long row;
+        String name;
+        String description;
+        String manufacturer;
+        String category;
+        String partNumber;
+        String quantityText;
+        String priceText;
+        int quantity;
+        BigDecimal price;
+
+        Row(long row) {
+            this.row = row;
+        }
+
+        /**
+         * Trim and check every field.
+         * @return error message, or null when the row is valid
+         */
+        String validate() {
+            name = trim(name);
+            description = trim(description);
+            manufacturer = trim(manufacturer);
+            category = trim(category);
+            partNumber = trim(partNumber);
+
+            String err = firstError(
+                required("partNumber", partNumber, MAX_PART_NUMBER),
+                required("name", name, MAX_NAME),
+                required("description", description, MAX_DESCRIPTION),
+                required("manufacturer", manufacturer, MAX_MANUFACTURER),
+                required("category", category, MAX_CATEGORY));
+            if (err != null) {
+                return err;
+            }
+            try {
+                quantity = Integer.parseInt(trim(quantityText));
+            } catch (NumberFormatException | NullPointerException ex) {
+                return "quantity must be a whole number";
+            }
+            if (quantity < 0) {
+                return "quantity must be 0 or more";
+            }
+            try {
+                price = new BigDecimal(trim(priceText));
+            } catch (NumberFormatException | NullPointerException ex) {
+                return "price must be a number";
+            }
+            if (price.signum() < 0 || price.compareTo(MAX_PRICE) > 0 || price.scale() > 2) {
+                return "price must be between 0.00 and " + MAX_PRICE + " with at most 2 decimals";
+            }
+            return null;
+        }
+
+        private static String firstError(String... errors) {
+            for (String e : errors) {
+                if (e != null) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        private static String required(String field, String value, int max) {
+            if (value == null || value.isEmpty()) {
+                return field + " is required";
+            }
+            if (value.length() > max) {
+                return field + " is longer than " + max + " characters";
+            }
+            return null;
+        }
+
+        private static String trim(String s) {
+            return s == null ? null : s.trim();
+        }
+    }
+
+    /**
+     * Collects valid rows and writes them in JDBC batches.
+     */
+    private final class Batch {
+        private final ImportSummary summary;
+        private final List<Row> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(ImportSummary summary) {
+            this.summary = summary;
+        }
+
+        void add(Row row) {
+            String err = row.validate();
+            if (err != null) {
+                summary.rowFailed(row.row, row.partNumber, err);
+                return;
+            }
+            rows.add(row);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                jdbc.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+                summary.batchWritten(rows.size());
+            } catch (DataAccessException ex) {
+                // Find the offending rows one at a time; the rest still get written
+                int written = 0;
+                for (Row row : rows) {
+                    try {
+                        jdbc.update(UPSERT_SQL, ps -> bind(ps, row));
+                        written++;
+                    } catch (DataAccessException rowEx) {
+                        summary.rowFailed(row.row, row.partNumber, rowEx.getMostSpecificCause().getMessage());
+                    }
+                }
+                summary.batchWritten(written);
+            }
+            rows.clear();
+        }
+
+        private void bind(PreparedStatement ps, Row r) throws SQLException {
+            ps.setString(1, r.name);
+            ps.setString(2, r.description);
+            ps.setString(3, r.manufacturer);
+            ps.setString(4, r.category);
+            ps.setString(5, r.partNumber);
+            ps.setInt(6, r.quantity);
+            ps.setBigDecimal(7, r.price);
+        }
+    }
+}
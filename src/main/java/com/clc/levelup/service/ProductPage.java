@@ -0,0 +1,46 @@
+package com.clc.levelup.service;
+
+import java.util.List;
+
+import com.clc.levelup.model.Product;
+
+/**
+ * One page of a keyset-paginated product listing.
+ * Holds only the rows for this page plus the cursor for the next one.
+ */
+public class ProductPage {
+
+    private final List<Product> items;
+    private final ProductSort sort;
+    private final int size;
+    private final String nextCursor;
+
+    /**
+     * Create a page.
+     * @param items rows on this page (at most {@code size})
+     * @param sort sort order used
+     * @param size requested page size after capping
+     * @param nextCursor token for the following page, or null on the last page
+     */
+    public ProductPage(List<Product> items, ProductSort sort, int size, String nextCursor) {
+        this.items = items;
+        this.sort = sort;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    /** @return rows on this page */
+    public List<Product> getItems() { return items; }
+
+    /** @return sort order used */
+    public ProductSort getSort() { return sort; }
+
+    /** @return effective page size */
+    public int getSize() { return size; }
+
+    /** @return cursor for the next page, or null when this is the last page */
+    public String getNextCursor() { return nextCursor; }
+
+    /** @return true when another page follows */
+    public boolean hasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,137 @@
+package com.clc.levelup.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+/**
+ * Product listings that read and return only the requested columns.
+ * <p>
+ * Rows become small ordered maps straight from the result set, never
+ * {@code Product} objects, so a {@code summary} listing neither transfers nor
+ * allocates the 512-character descriptions. Paging uses the same keyset
+ * cursors as {@link ProductService#findPage}.
+ * </p>
+ */
+@Service
+public class ProductProjectionService {
+
+    // Map key the NAME sort value is kept under while the cursor is built
+    private static final String SORT_NAME_KEY = "name";
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * @param jdbc configured JdbcTemplate
+     */
+    public ProductProjectionService(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Every product, projected.
+     * @param fields selected fields
+     * @return rows in id order
+     */
+    public List<Map<String, Object>> findAll(ProductFields fields) {
+        String sql = "SELECT " + fields.selectList() + " FROM products ORDER BY id";
+        return jdbc.query(sql, mapper(fields, false));
+    }
+
+    /**
+     * One keyset page, projected.
+     * @param fields selected fields
+     * @param sort sort order
+     * @param after cursor from the previous page, or null/blank for the first page
+     * @param size requested page size (capped at {@link ProductService#MAX_PAGE_SIZE})
+     * @return page of rows with the next cursor
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public Page findPage(ProductFields fields, ProductSort sort, String after, Integer size) {
+        int pageSize = (size == null || size < 1)
+                ? ProductService.DEFAULT_PAGE_SIZE : Math.min(size, ProductService.MAX_PAGE_SIZE);
+        ProductCursor cursor = (after == null || after.isBlank()) ? null : ProductCursor.decode(after, sort);
+
+        // Same seeks as ProductRepository's page queries; name is selected for the cursor
+        List<Map<String, Object>> rows;
+        if (sort == ProductSort.NAME) {
+            String select = "SELECT " + fields.selectList("name") + " FROM products ";
+            rows = (cursor == null)
+                    ? jdbc.query(select + "ORDER BY name, id LIMIT ?", mapper(fields, true), pageSize + 1)
+                    : jdbc.query(select + "WHERE name > ? OR (name = ? AND id > ?) ORDER BY name, id LIMIT ?",
+                                 mapper(fields, true), cursor.getLastName(), cursor.getLastName(),
+                                 cursor.getLastId(), pageSize + 1);
+        } else {
+            rows = jdbc.query("SELECT " + fields.selectList() + " FROM products WHERE id > ? ORDER BY id LIMIT ?",
+                              mapper(fields, false), cursor == null ? 0L : cursor.getLastId(), pageSize + 1);
+        }
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Map<String, Object> last = rows.get(pageSize - 1);
+            next = ProductCursor.after(sort, ((Number) last.get("id")).longValue(),
+                                       (String) last.get(SORT_NAME_KEY)).encode();
+        }
+        // Drop the helper sort key from rows that did not ask for name
+        if (sort == ProductSort.NAME && !fields.contains("name")) {
+            rows.forEach(r -> r.remove(SORT_NAME_KEY));
+        }
+        return new Page(rows, sort, pageSize, next);
+    }
+
+    /**
+     * Map each row to an ordered field map.
+     * @param fields selected fields
+     * @param withName also keep the name (the NAME sort key) even when not selected
+     */
+    private static RowMapper<Map<String, Object>> mapper(ProductFields fields, boolean withName) {
+        return (rs, i) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String f : fields.names()) {
+                row.put(f, rs.getObject(ProductFields.column(f)));
+            }
+            if (withName && !row.containsKey(SORT_NAME_KEY)) {
+                row.put(SORT_NAME_KEY, rs.getString("name"));
+            }
+            return row;
+        };
+    }
+
+    /**
+     * One page of projected rows.
+     */
+    public static final class Page {
+        private final List<Map<String, Object>> items;
+        private final ProductSort sort;
+        private final int size;
+        private final String nextCursor;
+
+        Page(List<Map<String, Object>> items, ProductSort sort, int size, String nextCursor) {
+            this.items = Collections.unmodifiableList(items);
+            this.sort = sort;
+            this.size = size;
+            this.nextCursor = nextCursor;
+        }
+
+        /** @return rows on this page */
+        public List<Map<String, Object>> getItems() { return items; }
+
+        /** @return sort order of the listing */
+        public ProductSort getSort() { return sort; }
+
+        /** @return effective page size */
+        public int getSize() { return size; }
+
+        /** @return cursor for the next page, or null on the last page */
+        public String getNextCursor() { return nextCursor; }
+
+        /** @return true when another page follows */
+        public boolean hasNext() { return nextCursor != null; }
+    }
+}
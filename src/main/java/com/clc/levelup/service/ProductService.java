@@ -1,8 +1,23 @@
 package com.clc.levelup.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.relational.core.conversion.DbActionExecutionException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.clc.levelup.model.Product;
 import com.clc.levelup.repository.ProductRepository;
 
@@ -14,39 +29,192 @@ import com.clc.levelup.repository.ProductRepository;
  * Any future business rules (such as stock checks or discount logic)
  * can be added here.
  * </p>
+ * Reads go through {@link ProductCache}; every write invalidates the affected
+ * rows both immediately and again after the transaction commits.
+ * Cached reads are not transactional, so a cache hit never borrows a pooled
+ * connection; only a miss opens a read-only transaction.
+ * Writes also publish a {@link ProductChangeEvent} for in-memory read models.
  */
 @Service
 public class ProductService {
 
+    /** Page size used when the client does not ask for one. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Upper bound on any requested page size. */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository repo;
+    private final ProductCache cache;
+    private final ApplicationEventPublisher events;
+    private final PartNumberIndex partNumbers;
+    private final TransactionTemplate readTx;
+
+    /** Upper bound on part numbers resolved in one batch call. */
+    public static final int MAX_PART_NUMBER_BATCH = 500;
+
+    /** Upper bound on ids resolved in one multi-get call. */
+    public static final int MAX_ID_BATCH = 500;
 
     /**
-     * Construct the service and inject the product repository.
+     * Construct the service and inject the product repository and cache.
      * @param repo repository for product persistence
+     * @param cache in-process product cache
+     * @param events publisher for {@link ProductChangeEvent}
+     * @param partNumbers in-memory part number index
+     * @param txManager opens the read-only transaction for cache misses
      */
-    public ProductService(ProductRepository repo) {
+    public ProductService(ProductRepository repo, ProductCache cache, ApplicationEventPublisher events,
+                          PartNumberIndex partNumbers, PlatformTransactionManager txManager) {
         this.repo = repo;
+        this.cache = cache;
+        this.events = events;
+        this.partNumbers = partNumbers;
+        this.readTx = new TransactionTemplate(txManager);
+        this.readTx.setReadOnly(true);
     }
 
     /**
      * Retrieve all products for display.
-     * Read-only transaction for better performance and safety.
+     * Served from the cache when the whole catalog fits inside it.
      * @return iterable collection of all products
      */
-    @Transactional(readOnly = true)
     public Iterable<Product> findAll() {
-        return repo.findAll();
+        Optional<List<Product>> cached = cache.getAll();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long generation = cache.generation();
+        return readTx.execute(status -> cache.putAll(repo.findAll(), generation));
     }
 
     /**
      * Find a single product by its ID.
-     * Used for product detail and edit pages.
+     * Used for product detail and edit pages, and by add-to-cart.
      * @param id product identifier
      * @return optional containing product if found
      */
-    @Transactional(readOnly = true)
     public Optional<Product> findById(Long id) {
-        return repo.findById(id);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Optional<Product> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = cache.generation();
+        Optional<Product> loaded = readTx.execute(status -> repo.findById(id));
+        loaded.ifPresent(p -> cache.put(p, generation));
+        return loaded;
+    }
+
+    /**
+     * Find a product by its part number.
+     * The part number index turns this into an id lookup, which the cache
+     * usually answers; the database is only asked before the index has loaded.
+     * @param partNumber part number (case-insensitive)
+     * @return optional containing product if found
+     */
+    public Optional<Product> findByPartNumber(String partNumber) {
+        if (partNumber == null || partNumber.isBlank()) {
+            return Optional.empty();
+        }
+        if (!partNumbers.isLoaded()) {
+            return readTx.execute(status -> repo.findByPartNumber(partNumber.trim()));
+        }
+        Long id = partNumbers.idOf(partNumber);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    /**
+     * Resolve many part numbers at once.
+     * @param partNumberList part numbers in request order (duplicates ignored)
+     * @return found products keyed by the part number as given, in request order;
+     *         part numbers with no product are absent
+     * @throws IllegalArgumentException if more than {@link #MAX_PART_NUMBER_BATCH} are requested
+     */
+    public Map<String, Product> findAllByPartNumbers(Collection<String> partNumberList) {
+        if (partNumberList.size() > MAX_PART_NUMBER_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_PART_NUMBER_BATCH + " part numbers per request");
+        }
+        Map<String, Product> found = new LinkedHashMap<>();
+        for (String pn : partNumberList) {
+            if (pn != null && !found.containsKey(pn)) {
+                findByPartNumber(pn).ifPresent(p -> found.put(pn, p));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Resolve many ids at once.
+     * Ids already in the cache are served from it; the rest are read with a
+     * single {@code WHERE id IN (...)} query and cached.
+     * @param ids product ids in request order (duplicates and nulls ignored)
+     * @return found products keyed by id, in request order; ids with no product are absent
+     * @throws IllegalArgumentException if more than {@link #MAX_ID_BATCH} ids are requested
+     */
+    public Map<Long, Product> findAllByIds(Collection<Long> ids) {
+        if (ids.size() > MAX_ID_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_ID_BATCH + " ids per request");
+        }
+        Map<Long, Product> found = new LinkedHashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            // Reserve the slot so the result keeps request order
+            Optional<Product> cached = cache.get(id);
+            found.put(id, cached.orElse(null));
+            if (cached.isEmpty()) {
+                toLoad.add(id);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            long generation = cache.generation();
+            for (Product p : readTx.execute(status -> repo.findAllById(toLoad))) {
+                cache.put(p, generation);
+                found.put(p.getId(), p);
+            }
+        }
+        found.values().removeIf(Objects::isNull);
+        return found;
+    }
+
+    /**
+     * Load one keyset page of products.
+     * Fetches one extra row to learn whether a next page exists, so the
+     * table is never read past the end of the requested page.
+     * @param sort sort order
+     * @param after cursor from the previous page, or null/blank for the first page
+     * @param size requested page size (capped at {@link #MAX_PAGE_SIZE})
+     * @return page of products with the next cursor
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    @Transactional(readOnly = true)
+    public ProductPage findPage(ProductSort sort, String after, Integer size) {
+        int pageSize = (size == null || size < 1) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        ProductCursor cursor = (after == null || after.isBlank()) ? null : ProductCursor.decode(after, sort);
+        long generation = cache.generation();
+
+        List<Product> rows;
+        if (sort == ProductSort.NAME) {
+            rows = (cursor == null)
+                    ? repo.findFirstPageByName(pageSize + 1)
+                    : repo.findPageByName(cursor.getLastName(), cursor.getLastId(), pageSize + 1);
+        } else {
+            rows = repo.findPageById(cursor == null ? 0L : cursor.getLastId(), pageSize + 1);
+        }
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            next = ProductCursor.after(sort, rows.get(pageSize - 1)).encode();
+        }
+        // Warm the cache so detail and add-to-cart clicks from this page hit
+        rows.forEach(p -> cache.put(p, generation));
+        return new ProductPage(rows, sort, pageSize, next);
     }
 
     /**
@@ -57,44 +225,122 @@ public class ProductService {
      */
     @Transactional
     public Product create(Product p) {
-        return repo.save(p);
+        Product saved = repo.save(p);
+        evict(List.of(saved.getId()));
+        events.publishEvent(ProductChangeEvent.created(saved));
+        return saved;
     }
 
     /**
      * Update an existing product.
-     * Ensures that the product exists before saving.
-     * @param p updated product data
-     * @return the saved product entity
-     * @throws IllegalArgumentException if product ID is missing or invalid
+     * One conditional UPDATE ({@code WHERE id = ? AND version = ?}); only when it
+     * matches nothing is the database asked whether the row still exists, to tell
+     * a missing product from a concurrent edit.
+     * @param p updated product data, carrying the version the caller last read
+     * @return the saved product entity (with its new version)
+     * @throws IllegalArgumentException if product ID or version is missing, or the product does not exist
+     * @throws OptimisticLockingFailureException if someone else saved the product first
+     * @throws DuplicateKeyException if the part number belongs to another product
      */
     @Transactional
     public Product update(Product p) {
-        requireExists(p.getId(), "Product not found for update.");
-        return repo.save(p);
+        if (p.getId() == null) {
+            throw new IllegalArgumentException("Product not found for update.");
+        }
+        if (p.getVersion() == null) {
+            throw new IllegalArgumentException("Product version is required for update.");
+        }
+        Product saved;
+        try {
+            saved = repo.save(p);
+        } catch (DbActionExecutionException ex) {
+            // Spring Data JDBC wraps constraint errors; surface a clashing part number as itself
+            if (ex.getCause() instanceof DuplicateKeyException) {
+                throw (DuplicateKeyException) ex.getCause();
+            }
+            throw ex;
+        } catch (OptimisticLockingFailureException ex) {
+            if (!repo.existsById(p.getId())) {
+                throw new IllegalArgumentException("Product not found for update.");
+            }
+            throw new OptimisticLockingFailureException(
+                    "Product " + p.getId() + " was changed by someone else; reload and try again.", ex);
+        }
+        evict(List.of(saved.getId()));
+        events.publishEvent(ProductChangeEvent.updated(saved));
+        return saved;
     }
 
     /**
      * Delete a product by ID.
-     * Performs a pre-check to confirm that the record exists.
+     * A single DELETE whose row count tells whether the product existed.
      * @param id product identifier
      * @throws IllegalArgumentException if no product exists with the given ID
      */
     @Transactional
     public void deleteById(Long id) {
-        requireExists(id, "Product not found for delete.");
-        repo.deleteById(id);
+        if (id == null || repo.deleteReturningCount(id) == 0) {
+            throw new IllegalArgumentException("Product not found for delete.");
+        }
+        evict(List.of(id));
+        events.publishEvent(ProductChangeEvent.deleted(id));
     }
 
     /**
-     * Verify that a product exists before performing an operation.
-     * Throws an exception if the record is missing.
-     * @param id product ID to check
-     * @param messageIfMissing exception message if record is not found
+     * Notify the service that stock for some products changed outside of it
+     * (for example the order trigger decrementing quantities at checkout).
+     * The affected rows are re-read in one IN query and published as
+     * STOCK_CHANGED events so read models pick up the new quantities.
+     * @param ids affected product ids
      */
-    @Transactional(readOnly = true)
-    protected void requireExists(Long id, String messageIfMissing) {
-        if (id == null || !repo.existsById(id)) {
-            throw new IllegalArgumentException(messageIfMissing);
+    public void stockChanged(Collection<Long> ids) {
+        republish(ids, ProductChangeEvent::stockChanged);
+    }
+
+    /**
+     * Notify the service that prices or other columns of some products changed
+     * outside of it (for example a bulk adjustment). Re-read like
+     * {@link #stockChanged} and published as UPDATED events.
+     * @param ids affected product ids
+     */
+    public void updatedOutside(Collection<Long> ids) {
+        republish(ids, ProductChangeEvent::updated);
+    }
+
+    // Evict, re-read the rows in one IN query and publish one event per product
+    private void republish(Collection<Long> ids, Function<Product, ProductChangeEvent> event) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        evict(ids);
+        for (Product p : repo.findAllById(ids)) {
+            events.publishEvent(event.apply(p));
+        }
+    }
+
+    /**
+     * Cache statistics for monitoring.
+     * @return current hit/miss/eviction counters
+     */
+    public ProductCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Invalidate cached rows now and, when inside a transaction, again after commit.
+     * The second pass removes anything a concurrent reader cached from the
+     * pre-commit state.
+     * @param ids product ids to drop
+     */
+    private void evict(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(ids);
+                }
+            });
         }
     }
 }
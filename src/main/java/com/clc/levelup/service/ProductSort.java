@@ -0,0 +1,42 @@
+package com.clc.levelup.service;
+
+import java.util.Locale;
+
+/**
+ * Sort orders supported by keyset pagination.
+ * Each order is backed by an index so the database never needs a filesort:
+ * ID uses the primary key and NAME uses {@code idx_products_name (name, id)}.
+ */
+public enum ProductSort {
+
+    /** Ascending by primary key (default). */
+    ID,
+
+    /** Ascending by name, ties broken by id. */
+    NAME;
+
+    /**
+     * Parse a request parameter, falling back to {@link #ID} when blank.
+     * @param value raw parameter value (case-insensitive)
+     * @return matching sort order
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static ProductSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+
+    /**
+     * Lowercase form used in URLs.
+     * @return parameter value for this sort
+     */
+    public String param() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
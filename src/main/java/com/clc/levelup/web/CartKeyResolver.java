@@ -0,0 +1,142 @@
+package com.clc.levelup.web;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import com.clc.levelup.cart.CartService;
+
+/**
+ * Works out which cart a request belongs to.
+ * <p>
+ * Signed-in users own {@link CartService#userKey} carts. Anonymous browsers
+ * get a random id in an HttpOnly cookie the first time they change a cart,
+ * and own the matching {@link CartService#anonymousKey} cart. The cookie holds
+ * nothing but that id; the cart itself stays in the cart store, which evicts
+ * it after the same TTL the cookie carries.
+ * </p>
+ */
+@Component
+public class CartKeyResolver {
+
+    // 128 random bits, base64url without padding
+    private static final Pattern VALID_ID = Pattern.compile("^[A-Za-z0-9_-]{22}$");
+
+    private final SecureRandom random = new SecureRandom();
+    private final String cookieName;
+    private final Duration ttl;
+
+    /**
+     * @param cookieName name of the anonymous cart cookie
+     * @param ttlHours cookie lifetime, matching the anonymous cart TTL
+     */
+    public CartKeyResolver(@Value("${levelup.cart.cookie-name:levelup_cart}") String cookieName,
+                           @Value("${levelup.cart.anonymous-ttl-hours:168}") long ttlHours) {
+        this.cookieName = cookieName;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+    }
+
+    /**
+     * Key of the cart this request may read.
+     * @param request current request
+     * @param auth current authentication (may be null or anonymous)
+     * @return user key, anonymous key from the cookie, or null when the browser has no cart yet
+     */
+    public String resolve(HttpServletRequest request, Authentication auth) {
+        if (isSignedIn(auth)) {
+            return CartService.userKey(auth.getName());
+        }
+        return anonymousKey(request);
+    }
+
+    /**
+     * Key of the cart this request changes, issuing an anonymous cart cookie if needed.
+     * An existing cookie is re-sent so its expiry follows the cart's last change.
+     * @param request current request
+     * @param response current response (receives the cookie)
+     * @param auth current authentication (may be null or anonymous)
+     * @return cart key
+     */
+    public String resolveForUpdate(HttpServletRequest request, HttpServletResponse response, Authentication auth) {
+        if (isSignedIn(auth)) {
+            return CartService.userKey(auth.getName());
+        }
+        String id = cookieId(request);
+        if (id == null) {
+            byte[] bytes = new byte[16];
+            random.nextBytes(bytes);
+            id = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+        writeCookie(request, response, id, ttl);
+        return CartService.anonymousKey(id);
+    }
+
+    /**
+     * Anonymous cart key from the request's cookie.
+     * @param request current request
+     * @return key, or null when there is no valid cart cookie
+     */
+    public String anonymousKey(HttpServletRequest request) {
+        String id = cookieId(request);
+        return id == null ? null : CartService.anonymousKey(id);
+    }
+
+    /**
+     * Whether the browser carries an anonymous cart cookie (its pages show a per-browser cart badge).
+     * @param request current request
+     * @return true if a valid cart cookie is present
+     */
+    public boolean hasAnonymousCart(HttpServletRequest request) {
+        return cookieId(request) != null;
+    }
+
+    /**
+     * Expire the anonymous cart cookie, e.g. after its cart was merged at login.
+     * @param request current request
+     * @param response current response
+     */
+    public void clearCookie(HttpServletRequest request, HttpServletResponse response) {
+        writeCookie(request, response, "", Duration.ZERO);
+    }
+
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path(path)
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private String cookieId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie c : cookies) {
+            if (cookieName.equals(c.getName()) && c.getValue() != null && VALID_ID.matcher(c.getValue()).matches()) {
+                return c.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSignedIn(Authentication auth) {
+        return auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken);
+    }
+}
@@ -0,0 +1,226 @@
+package com.clc.levelup.web;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.clc.levelup.service.ProductChangeEvent;
+
+/**
+ * Bounded LRU store of rendered HTML for anonymous product pages.
+ * <p>
+ * Pages are stored split around the CSRF token, so each visitor gets their
+ * own token spliced back in (see {@link PageCacheFilter}). Every committed
+ * catalog change empties the cache and bumps a generation counter; a render
+ * that started before the change is not stored, just like {@code ProductCache}.
+ * </p>
+ */
+@Component
+public class PageCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Access-ordered map gives LRU eviction
+    private final LinkedHashMap<String, Page> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum number of cached pages
+     * @param ttlSeconds time-to-live per page in seconds
+     */
+    public PageCache(@Value("${levelup.pagecache.max-entries:500}") int maxEntries,
+                     @Value("${levelup.pagecache.ttl-seconds:120}") long ttlSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+    }
+
+    /**
+     * Drop every page after a committed catalog or stock change.
+     * @param event change published by ProductService
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * @return generation to capture before rendering a page
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Look up a rendered page.
+     * @param key request path plus query
+     * @return page, or null on a miss or expired entry
+     */
+    public synchronized Page get(String key) {
+        Page p = pages.get(key);
+        if (p != null && System.nanoTime() - p.expiresAt > 0) {
+            pages.remove(key);
+            evictions.incrementAndGet();
+            p = null;
+        }
+        (p == null ? misses : hits).incrementAndGet();
+        return p;
+    }
+
+    /**
+     * Store a rendered page unless the catalog changed while it was rendering.
+     * @param key request path plus query
+     * @param page rendered page
+     * @param renderedAt generation captured before rendering
+     */
+    public synchronized void put(String key, Page page, long renderedAt) {
+        if (renderedAt != generation) {
+            return;
+        }
+        page.expiresAt = System.nanoTime() + ttlNanos;
+        pages.put(key, page);
+        Iterator<Map.Entry<String, Page>> it = pages.entrySet().iterator();
+        while (pages.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drop every page.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        pages.clear();
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Count a product page request that could not use the cache
+     * (signed-in user, pending flash message, ...).
+     */
+    void recordBypass() {
+        bypasses.incrementAndGet();
+    }
+
+    /**
+     * Snapshot of the counters, served by /api/cache/stats.
+     * @return counters keyed by name
+     */
+    public synchronized Map<String, Object> stats() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("hits", h);
+        out.put("misses", m);
+        out.put("bypasses", bypasses.get());
+        out.put("evictions", evictions.get());
+        out.put("invalidations", invalidations.get());
+        out.put("size", pages.size());
+        out.put("maxSize", maxEntries);
+        out.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        return out;
+    }
+
+    /**
+     * A rendered page: content type plus body segments with the CSRF token cut out.
+     */
+    public static final class Page {
+        private final String contentType;
+        private final List<byte[]> segments;
+        private final int length;
+        private volatile long expiresAt;
+
+        private Page(String contentType, List<byte[]> segments) {
+            this.contentType = contentType;
+            this.segments = segments;
+            int n = 0;
+            for (byte[] s : segments) {
+                n += s.length;
+            }
+            this.length = n;
+        }
+
+        /**
+         * Split a rendered body around every occurrence of the token.
+         * @param contentType response content type
+         * @param body rendered bytes
+         * @param token CSRF token used while rendering, or null if the page had none
+         * @return page ready to store
+         */
+        public static Page of(String contentType, byte[] body, String token) {
+            List<byte[]> segments = new ArrayList<>();
+            if (token == null || token.isEmpty()) {
+                segments.add(body);
+                return new Page(contentType, segments);
+            }
+            byte[] needle = token.getBytes(StandardCharsets.UTF_8);
+            int start = 0;
+            for (int i = indexOf(body, needle, 0); i >= 0; i = indexOf(body, needle, start)) {
+                segments.add(Arrays.copyOfRange(body, start, i));
+                start = i + needle.length;
+            }
+            segments.add(Arrays.copyOfRange(body, start, body.length));
+            return new Page(contentType, segments);
+        }
+
+        /** @return response content type */
+        public String getContentType() { return contentType; }
+
+        /**
+         * Rebuild the body with the given token between segments.
+         * @param token this visitor's CSRF token (ignored when the page has none)
+         * @return body bytes
+         */
+        public byte[] render(String token) {
+            if (segments.size() == 1) {
+                return segments.get(0);
+            }
+            byte[] t = token.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length + t.length * (segments.size() - 1));
+            for (int i = 0; i < segments.size(); i++) {
+                if (i > 0) {
+                    out.write(t, 0, t.length);
+                }
+                out.write(segments.get(i), 0, segments.get(i).length);
+            }
+            return out.toByteArray();
+        }
+
+        /** @return true when the page contains a CSRF token slot */
+        public boolean needsToken() {
+            return segments.size() > 1;
+        }
+
+        private static int indexOf(byte[] hay, byte[] needle, int from) {
+            outer:
+            for (int i = from; i <= hay.length - needle.length; i++) {
+                for (int j = 0; j < needle.length; j++) {
+                    if (hay[i + j] != needle[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
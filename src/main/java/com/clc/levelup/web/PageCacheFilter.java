@@ -0,0 +1,132 @@
+package com.clc.levelup.web;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves anonymous GETs of the product list and detail pages from {@link PageCache}.
+ * <p>
+ * Runs after Spring Security so the visitor is known. A request is only cached
+ * when it is anonymous, carries no session-held user name, has no flash
+ * message waiting and has no anonymous cart (whose badge is per browser). On a miss the rendered page is stored with its CSRF token
+ * cut out; on a hit this visitor's own token is spliced back in, so forms keep
+ * working and no token is ever shared between visitors.
+ * </p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    // /products, /products/list and /products/{id}
+    private static final Pattern CACHEABLE = Pattern.compile("^/products(/list|/\\d+)?$");
+
+    // Same storage the default CsrfFilter uses; read without creating a token
+    private static final HttpSessionCsrfTokenRepository TOKENS = new HttpSessionCsrfTokenRepository();
+
+    private final PageCache cache;
+    private final CartKeyResolver cartKeys;
+
+    /**
+     * @param cache rendered page store
+     * @param cartKeys detects browsers with an anonymous cart
+     */
+    public PageCacheFilter(PageCache cache, CartKeyResolver cartKeys) {
+        this.cache = cache;
+        this.cartKeys = cartKeys;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !CACHEABLE.matcher(path(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isAnonymousVisitor(request)) {
+            cache.recordBypass();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = path(request) + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        PageCache.Page hit = cache.get(key);
+        if (hit != null) {
+            String token = null;
+            if (hit.needsToken()) {
+                // Same lazy token the view would have used; creates it for this visitor if needed
+                CsrfToken csrf = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+                token = csrf == null ? "" : csrf.getToken();
+            }
+            byte[] body = hit.render(token);
+            response.setContentType(hit.getContentType());
+            response.setContentLength(body.length);
+            response.setHeader("X-Page-Cache", "HIT");
+            response.getOutputStream().write(body);
+            return;
+        }
+
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader("X-Page-Cache", "MISS");
+        try {
+            chain.doFilter(request, wrapper);
+            String type = wrapper.getContentType();
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && type != null && type.startsWith("text/html")) {
+                CsrfToken used = TOKENS.loadToken(request);
+                cache.put(key, PageCache.Page.of(type, wrapper.getContentAsByteArray(),
+                                                 used == null ? null : used.getToken()), generation);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Whether the response can be shared: anonymous, no anonymous cart, no legacy
+     * session user, no pending flash message.
+     */
+    private boolean isAnonymousVisitor(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && !(auth instanceof AnonymousAuthenticationToken)) {
+            return false;
+        }
+        // The header badge shows this browser's own cart count
+        if (cartKeys.hasAnonymousCart(request)) {
+            return false;
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return true;
+        }
+        // GlobalModelAttributes reads these into every page
+        if (session.getAttribute("currentUser") != null || session.getAttribute("principal") != null) {
+            return false;
+        }
+        Object flash = session.getAttribute(SessionFlashMapManager.class.getName() + ".FLASH_MAPS");
+        return !(flash instanceof Collection) || ((Collection<?>) flash).isEmpty();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,66 @@
+package com.clc.levelup.web;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.clc.levelup.config.ReplicaRoutingDataSource;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they write.
+ * <p>
+ * When a request opens a write transaction (cart change, checkout, product edit), its session
+ * remembers a deadline. Until then that session's read-only transactions are
+ * pinned to the primary, so the order just placed shows up on /orders even if
+ * the replicas have not caught up. Other users keep reading from replicas.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String PRIMARY_UNTIL = ReadYourWritesFilter.class.getName() + ".PRIMARY_UNTIL";
+
+    private final long windowMillis;
+
+    /**
+     * @param windowSeconds how long reads stay on the primary after a write
+     */
+    public ReadYourWritesFilter(@Value("${levelup.datasource.read-your-writes-seconds:5}") long windowSeconds) {
+        this.windowMillis = windowSeconds * 1000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            Object until = session.getAttribute(PRIMARY_UNTIL);
+            if (until instanceof Long && (Long) until > System.currentTimeMillis()) {
+                ReplicaRoutingDataSource.pinToPrimary();
+            }
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (ReplicaRoutingDataSource.wroteOnThread()) {
+                // Session may have been created (login) or replaced during the request
+                HttpSession current = request.getSession(false);
+                if (current != null) {
+                    current.setAttribute(PRIMARY_UNTIL, System.currentTimeMillis() + windowMillis);
+                }
+            }
+            ReplicaRoutingDataSource.clearThread();
+        }
+    }
+}
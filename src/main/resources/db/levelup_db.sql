@@ -53,12 +53,37 @@ CREATE TABLE IF NOT EXISTS products (
   quantity      INT          NOT NULL DEFAULT 0,
   price         DECIMAL(10,2) NOT NULL DEFAULT 0.00,
   created_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  version       BIGINT       NOT NULL DEFAULT 0,
 
   UNIQUE KEY uk_products_partNumber (partNumber),
   KEY idx_products_name (name),
   KEY idx_products_category (category)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Update: products.updated_at drives Last-Modified on the products API.
+-- Existing databases get the column added once (MySQL has no ADD COLUMN IF NOT EXISTS).
+SET @add_products_updated_at = (
+  SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE products ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP AFTER created_at',
+    'DO 0')
+  FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'updated_at');
+PREPARE add_products_updated_at FROM @add_products_updated_at;
+EXECUTE add_products_updated_at;
+DEALLOCATE PREPARE add_products_updated_at;
+
+-- Update: products.version backs optimistic locking (Product @Version); every writer bumps it.
+SET @add_products_version = (
+  SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER updated_at',
+    'DO 0')
+  FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'version');
+PREPARE add_products_version FROM @add_products_version;
+EXECUTE add_products_version;
+DEALLOCATE PREPARE add_products_version;
+
 -- Password reset token storage (one-time, expiring)
 CREATE TABLE IF NOT EXISTS password_reset_tokens (
   id         BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -126,14 +151,61 @@ CREATE TABLE IF NOT EXISTS order_items (
   CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Update: carts live in the database instead of the HTTP session (JdbcCartStore),
+-- so any web node can serve any request and carts survive restarts.
+CREATE TABLE IF NOT EXISTS carts (
+  cart_key VARCHAR(191) PRIMARY KEY,
+  line_count INT NOT NULL DEFAULT 0,
+  item_count INT NOT NULL DEFAULT 0,
+  total DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Update: running cart totals (line_count, item_count, total) for the header badge and cart summary.
+SET @add_carts_totals = (
+  SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE carts ADD COLUMN line_count INT NOT NULL DEFAULT 0 AFTER cart_key, ADD COLUMN item_count INT NOT NULL DEFAULT 0 AFTER line_count, ADD COLUMN total DECIMAL(12,2) NOT NULL DEFAULT 0.00 AFTER item_count',
+    'DO 0')
+  FROM information_schema.COLUMNS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'carts' AND COLUMN_NAME = 'line_count');
+PREPARE add_carts_totals FROM @add_carts_totals;
+EXECUTE add_carts_totals;
+DEALLOCATE PREPARE add_carts_totals;
+
+-- Update: anonymous (cookie) carts expire after levelup.cart.anonymous-ttl-hours without a change;
+-- the eviction job deletes them oldest first by updated_at.
+SET @add_carts_updated_idx = (
+  SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_carts_updated_at ON carts (updated_at)',
+    'DO 0')
+  FROM information_schema.STATISTICS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'carts' AND INDEX_NAME = 'idx_carts_updated_at');
+PREPARE add_carts_updated_idx FROM @add_carts_updated_idx;
+EXECUTE add_carts_updated_idx;
+DEALLOCATE PREPARE add_carts_updated_idx;
+
+CREATE TABLE IF NOT EXISTS cart_items (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  cart_key VARCHAR(191) NOT NULL,
+  product_id BIGINT NOT NULL,
+  name VARCHAR(128) NOT NULL,
+  price DECIMAL(10,2) NOT NULL,
+  quantity INT NOT NULL,
+  UNIQUE KEY uk_cart_items_cart_product (cart_key, product_id),
+  CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_key) REFERENCES carts(cart_key) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Update (M7): trigger to decrement inventory after each order is placed
+-- Update: also bumps products.version so an admin edit opened before the sale
+-- cannot silently write the old quantity back.
 DROP TRIGGER IF EXISTS trg_after_order_item_insert;
 
 CREATE TRIGGER trg_after_order_item_insert
 AFTER INSERT ON order_items
 FOR EACH ROW
 UPDATE products
-   SET quantity = quantity - NEW.quantity
+   SET quantity = quantity - NEW.quantity,
+       version = version + 1
  WHERE id = NEW.product_id
    AND quantity >= NEW.quantity;
 
@@ -27,6 +27,11 @@ VALUES
 ('Lanyard: Party Finder', 'Black lanyard with white party icons', 'LevelUp Co', 'Gear', 'LU-LY-955', 70, 5.99),
 ('Sticker Pack: Loot Drop', '10 glossy vinyl stickers—loot icons', 'LevelUp Co', 'Stickers', 'LU-ST-980', 100, 6.99)
 ON DUPLICATE KEY UPDATE
+  -- Update: bump the optimistic-lock version only when the seed actually changes the row.
+  -- It must come first: MySQL applies these assignments left to right.
+  version=IF(name <=> VALUES(name) AND description <=> VALUES(description)
+             AND manufacturer <=> VALUES(manufacturer) AND category <=> VALUES(category)
+             AND quantity <=> VALUES(quantity) AND price <=> VALUES(price), version, version + 1),
   name=VALUES(name),
   description=VALUES(description),
   manufacturer=VALUES(manufacturer),
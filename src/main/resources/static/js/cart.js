@@ -0,0 +1,90 @@
+// In-place cart updates.
+// - Add-to-Cart forms (data-cart-add) post JSON to /api/cart/items and update the header badge.
+// - Update/Remove forms on the cart page (data-cart-form) post as usual with X-Requested-With,
+//   and the server answers with just the re-rendered cart panel.
+// Without JS, or when a request is refused (e.g. not signed in), the normal form post runs instead.
+(function () {
+  'use strict';
+
+  function meta(name) {
+    var el = document.querySelector('meta[name="' + name + '"]');
+    return el ? el.getAttribute('content') : null;
+  }
+
+  function setBadge(count) {
+    var badge = document.getElementById('cart-badge');
+    if (!badge) return;
+    badge.textContent = count;
+    badge.classList.toggle('d-none', !count);
+  }
+
+  function addToCart(form) {
+    var token = meta('_csrf');
+    if (!token) {
+      // Not signed in: the JSON cart API is for users; the normal post fills the anonymous (cookie) cart
+      return false;
+    }
+    var headers = { 'Content-Type': 'application/json', 'Accept': 'application/json' };
+    headers[meta('_csrf_header')] = token;
+    var qty = form.querySelector('[name="qty"]');
+    var button = form.querySelector('[type="submit"]');
+    if (button) button.disabled = true;
+
+    fetch(form.getAttribute('data-cart-add'), {
+      method: 'POST',
+      credentials: 'same-origin',
+      headers: headers,
+      body: JSON.stringify({
+        productId: Number(form.getAttribute('data-product-id')),
+        quantity: qty ? Number(qty.value) || 1 : 1
+      })
+    }).then(function (res) {
+      if (!res.ok) throw new Error('HTTP ' + res.status);
+      return res.json();
+    }).then(function (body) {
+      setBadge(body.summary.itemCount);
+      if (button) {
+        var label = button.textContent;
+        button.textContent = 'Added';
+        setTimeout(function () { button.textContent = label; }, 1200);
+      }
+    }).catch(function () {
+      form.submit();
+    }).finally(function () {
+      if (button) button.disabled = false;
+    });
+    return true;
+  }
+
+  function postCartForm(form) {
+    var panel = document.getElementById('cart-panel');
+    fetch(form.action, {
+      method: 'POST',
+      credentials: 'same-origin',
+      headers: { 'X-Requested-With': 'XMLHttpRequest' },
+      body: new URLSearchParams(new FormData(form))
+    }).then(function (res) {
+      if (!res.ok || res.redirected) throw new Error('HTTP ' + res.status);
+      return res.text();
+    }).then(function (html) {
+      var holder = document.createElement('div');
+      holder.innerHTML = html;
+      var fresh = holder.querySelector('#cart-panel');
+      if (!fresh) throw new Error('No cart panel in response');
+      panel.replaceWith(fresh);
+      setBadge(Number(fresh.getAttribute('data-cart-count')) || 0);
+    }).catch(function () {
+      form.submit();
+    });
+  }
+
+  document.addEventListener('submit', function (e) {
+    var form = e.target;
+    if (form.hasAttribute('data-cart-add')) {
+      if (addToCart(form)) e.preventDefault();
+    } else if (form.hasAttribute('data-cart-form') && document.getElementById('cart-panel')) {
+      e.preventDefault();
+      postCartForm(form);
+    }
+  });
+})();
@@ -0,0 +1,47 @@
+package com.clc.levelup.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.clc.levelup.cart.CartItem;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CartApiControllerTest {
+
+    private static final String TOO_MANY = "quantity must be at most " + CartItem.MAX_QUANTITY;
+
+    @Autowired
+    private MockMvc mvc;
+
+    // A huge quantity used to overflow the line and the carts.total column into a 500
+    @Test
+    @WithMockUser(username = "quantity-test")
+    void quantityAboveTheMaximumIsA400() throws Exception {
+        mvc.perform(post("/api/cart/items").with(csrf()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":1,\"quantity\":2147483647}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(TOO_MANY));
+
+        mvc.perform(put("/api/cart/items/1").with(csrf()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":" + (CartItem.MAX_QUANTITY + 1) + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(TOO_MANY));
+
+        mvc.perform(post("/api/cart/items/batch").with(csrf()).contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":1,\"quantity\":2147483647}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(TOO_MANY));
+    }
+}
@@ -0,0 +1,109 @@
+package com.clc.levelup.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.clc.levelup.service.CatalogSnapshotService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductsApiControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private CatalogSnapshotService snapshotService;
+
+    // A partial body must be rejected field by field instead of reaching the NOT NULL columns
+    @Test
+    @WithMockUser(username = "admin", roles = { "ADMIN", "API" })
+    void putWithMissingFieldsIsA400WithFieldErrors() throws Exception {
+        mvc.perform(put("/api/products/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"  \",\"quantity\":-2,\"price\":1.234}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fields.name").value("Name is required."))
+            .andExpect(jsonPath("$.fields.manufacturer").value("Manufacturer is required."))
+            .andExpect(jsonPath("$.fields.category").value("Category is required."))
+            .andExpect(jsonPath("$.fields.partNumber").value("Part number is required."))
+            .andExpect(jsonPath("$.fields.quantity").exists())
+            .andExpect(jsonPath("$.fields.price").exists())
+            .andExpect(jsonPath("$.fields.version").exists());
+    }
+
+    @Test
+    @WithMockUser(username = "api", roles = "API")
+    void unknownFieldIsA400WithTheReason() throws Exception {
+        mvc.perform(get("/api/products").param("fields", "name,colour"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("Unknown field: colour"));
+    }
+
+    @Test
+    @WithMockUser(username = "api", roles = "API")
+    void exportLinesCarryTheVersion() throws Exception {
+        mvc.perform(get("/api/products/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"version\":")));
+    }
+
+    @Test
+    void gzipNeedsANonZeroQValue() {
+        assertTrue(ProductsApiController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ProductsApiController.acceptsGzip("br;q=1.0, gzip;q=0.5"));
+        assertTrue(ProductsApiController.acceptsGzip("*"));
+        assertFalse(ProductsApiController.acceptsGzip("gzip;q=0"));
+        assertFalse(ProductsApiController.acceptsGzip("gzip; q=0.000, identity"));
+        assertFalse(ProductsApiController.acceptsGzip("*;q=0.5, gzip;q=0"));
+        assertFalse(ProductsApiController.acceptsGzip("identity"));
+        assertFalse(ProductsApiController.acceptsGzip(null));
+    }
+
+    // The gzip and identity snapshot bodies differ byte for byte, so their strong tags must too
+    @Test
+    @WithMockUser(username = "api", roles = "API")
+    void gzipSnapshotHasItsOwnEtag() throws Exception {
+        for (int i = 0; i < 50 && snapshotService.current() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertNotNull(snapshotService.current(), "snapshot was not built");
+
+        String gzipTag = mvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String plainTag = mvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(gzipTag, plainTag);
+        assertEquals(ProductsApiController.gzipEtag(plainTag), gzipTag);
+
+        // A tag only revalidates the encoding it was issued for
+        mvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+            .andExpect(status().isNotModified());
+        mvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+            .andExpect(status().isOk());
+    }
+}
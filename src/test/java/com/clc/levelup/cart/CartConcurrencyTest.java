@@ -0,0 +1,97 @@
+package com.clc.levelup.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many "tabs" changing one cart at once: no update may be lost and totals must match the lines.
+class CartConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 500;
+  private static final int SHARED = 5;
+
+  private final CartService carts = new CartService(new InMemoryCartStore());
+
+  @Test
+  void parallelAddsAreNeverLost() throws Exception {
+    String key = CartService.userKey("alice");
+    // Every thread hits the same few shared lines, each kept under CartItem.MAX_QUANTITY
+    runConcurrently(t -> {
+      for (int i = 0; i < ROUNDS; i++) {
+        carts.addOrIncrement(key, new CartItem(1 + i % SHARED, "Tee", new BigDecimal("20.00"), 1));
+        carts.addOrIncrement(key, new CartItem(100 + t, "Line " + t, new BigDecimal("1.50"), 1));
+      }
+    });
+
+    Cart cart = carts.getCart(key);
+    for (long id = 1; id <= SHARED; id++) {
+      assertEquals(THREADS * ROUNDS / SHARED, cart.getItem(id).orElseThrow().getQuantity());
+    }
+    assertEquals(SHARED + THREADS, cart.getLineCount());
+    assertEquals(2 * THREADS * ROUNDS, cart.getItemCount());
+    assertConsistent(cart);
+  }
+
+  @Test
+  void mixedChangesKeepTotalsConsistent() throws Exception {
+    String key = CartService.userKey("bob");
+    runConcurrently(t -> {
+      long own = 100 + t;
+      for (int i = 0; i < ROUNDS; i++) {
+        carts.addOrIncrement(key, new CartItem(own, "Own " + t, new BigDecimal("3.25"), 1));
+        carts.updateQuantity(key, own, i % 5 + 1);
+        carts.addOrIncrement(key, new CartItem(1, "Shared", new BigDecimal("9.99"), 1));
+        carts.remove(key, 1);
+        assertConsistent(carts.getCart(key));
+      }
+      carts.remove(key, own);
+    });
+
+    // Every thread's last change to each product was a remove
+    assertTrue(carts.isEmpty(key));
+    assertEquals(0, carts.getSummary(key).getItemCount());
+  }
+
+  private static void assertConsistent(Cart cart) {
+    BigDecimal sum = cart.getItems().stream().map(CartItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    int items = cart.getItems().stream().mapToInt(CartItem::getQuantity).sum();
+    assertEquals(0, sum.compareTo(cart.getTotal()), "total");
+    assertEquals(items, cart.getItemCount(), "item count");
+    assertEquals(cart.getItems().size(), cart.getLineCount(), "line count");
+  }
+
+  private interface Worker {
+    void run(int thread) throws Exception;
+  }
+
+  private static void runConcurrently(Worker worker) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> done = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        int thread = t;
+        done.add(pool.submit(() -> {
+          start.await();
+          worker.run(thread);
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> f : done) {
+        f.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
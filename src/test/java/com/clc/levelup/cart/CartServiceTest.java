@@ -0,0 +1,112 @@
+package com.clc.levelup.cart;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test over the in-memory store: no Spring context or database needed.
+class CartServiceTest {
+
+  private final InMemoryCartStore store = new InMemoryCartStore();
+  private final CartService carts = new CartService(store);
+
+  @Test
+  void cartsAreKeptApartByOwner() {
+    String alice = CartService.userKey("Alice");
+    String bob = CartService.userKey("bob");
+    carts.addOrIncrement(alice, new CartItem(1, "Tee", new BigDecimal("20.00"), 2));
+    carts.addOrIncrement(bob, new CartItem(2, "Mug", new BigDecimal("12.00"), 1));
+
+    assertEquals(CartService.userKey("alice"), alice);
+    assertEquals(List.of(1L), carts.getItems(alice).stream().map(CartItem::getProductId).toList());
+    assertEquals(1, carts.getSummary(bob).getItemCount());
+    assertEquals(new BigDecimal("12.00"), carts.getTotal(bob));
+  }
+
+  @Test
+  void addingTheSameProductIncrementsOneLine() {
+    String key = CartService.userKey("alice");
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), 1));
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), 2));
+
+    assertEquals(1, carts.getItems(key).size());
+    assertEquals(3, carts.getCart(key).getItem(1).orElseThrow().getQuantity());
+  }
+
+  @Test
+  void lineQuantityIsCappedWithoutOverflow() {
+    String key = CartService.userKey("alice");
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), Integer.MAX_VALUE));
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), Integer.MAX_VALUE));
+    assertEquals(CartItem.MAX_QUANTITY, carts.getCart(key).getItem(1).orElseThrow().getQuantity());
+
+    carts.updateQuantity(key, 1, Integer.MAX_VALUE);
+    Cart cart = carts.getCart(key);
+    assertEquals(CartItem.MAX_QUANTITY, cart.getItemCount());
+    assertEquals(new BigDecimal("19980.00"), cart.getTotal());
+  }
+
+  @Test
+  void returnedCartsAreSnapshots() {
+    String key = CartService.userKey("alice");
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), 1));
+    Cart before = carts.getCart(key);
+    carts.updateQuantity(key, 1, 50);
+
+    assertEquals(1, before.getItem(1).orElseThrow().getQuantity());
+    assertEquals(50, carts.getCart(key).getItem(1).orElseThrow().getQuantity());
+    carts.clear(key);
+    assertTrue(carts.isEmpty(key));
+  }
+
+  @Test
+  void runningTotalsFollowEveryChange() {
+    String key = CartService.userKey("alice");
+    carts.addOrIncrement(key, new CartItem(1, "Tee", new BigDecimal("20.00"), 2));
+    carts.addOrIncrement(key, new CartItem(2, "Mug", new BigDecimal("12.50"), 1));
+    carts.updateQuantity(key, 1, 3);
+    carts.remove(key, 2);
+    carts.addOrIncrement(key, new CartItem(3, "Cap", new BigDecimal("15.00"), 1));
+
+    CartSummary summary = carts.getSummary(key);
+    assertEquals(2, summary.getLineCount());
+    assertEquals(4, summary.getItemCount());
+    assertEquals(0, new BigDecimal("75.00").compareTo(summary.getTotal()));
+    assertEquals(0, summary.getTotal().compareTo(carts.getCart(key).getItems().stream()
+        .map(CartItem::getSubtotal).reduce(BigDecimal.ZERO, BigDecimal::add)));
+    assertThrows(UnsupportedOperationException.class, () -> carts.getCart(key).getItems().clear());
+  }
+
+  @Test
+  void anonymousCartMergesIntoUserCart() {
+    String anon = CartService.anonymousKey("AbCdEfGhIjKlMnOpQrStUv");
+    String user = CartService.userKey("alice");
+    carts.addOrIncrement(user, new CartItem(1, "Tee", new BigDecimal("20.00"), 1));
+    carts.addOrIncrement(anon, new CartItem(1, "Tee", new BigDecimal("20.00"), 2));
+    carts.addOrIncrement(anon, new CartItem(2, "Mug", new BigDecimal("12.00"), 1));
+
+    assertEquals(2, carts.merge(anon, user));
+    assertTrue(carts.isEmpty(anon));
+    Cart merged = carts.getCart(user);
+    assertEquals(3, merged.getItem(1).orElseThrow().getQuantity());
+    assertEquals(4, merged.getItemCount());
+    assertEquals(0, carts.merge(anon, user));
+  }
+
+  @Test
+  void onlyIdleAnonymousCartsAreEvicted() {
+    String anon = CartService.anonymousKey("AbCdEfGhIjKlMnOpQrStUv");
+    String user = CartService.userKey("alice");
+    carts.addOrIncrement(anon, new CartItem(1, "Tee", new BigDecimal("20.00"), 1));
+    carts.addOrIncrement(user, new CartItem(1, "Tee", new BigDecimal("20.00"), 1));
+
+    assertEquals(0, store.evictIdle(CartService.ANONYMOUS_PREFIX, Duration.ofHours(1)));
+    assertEquals(1, store.evictIdle(CartService.ANONYMOUS_PREFIX, Duration.ZERO));
+    assertTrue(carts.isEmpty(anon));
+    assertFalse(carts.isEmpty(user));
+  }
+}
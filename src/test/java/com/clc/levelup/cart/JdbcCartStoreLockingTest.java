@@ -0,0 +1,129 @@
+package com.clc.levelup.cart;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two transactions on one cart against the application database (InnoDB, REPEATABLE READ);
+// H2 does not keep per-transaction snapshots, so JdbcCartStoreTest cannot show a stale read.
+@SpringBootTest
+class JdbcCartStoreLockingTest {
+
+    private static final String KEY = CartService.userKey("locking-test");
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private JdbcCartStore store;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM carts WHERE cart_key = ?", KEY);
+    }
+
+    private static CartItem item(long productId, String price, int qty) {
+        return new CartItem(productId, "Product " + productId, new BigDecimal(price), qty);
+    }
+
+    // The first transaction reads the cart, another commits a line, then the first one updates
+    @Test
+    void updateAfterAReadBuildsOnTheLatestCommit() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = pool.submit(() -> tx.executeWithoutResult(s -> {
+                assertTrue(store.cart(KEY).isEmpty());
+                read.countDown();
+                await(committed);
+                store.update(KEY, c -> c.plus(item(1, "2.50", 1)));
+            }));
+            await(read);
+            tx.executeWithoutResult(s -> store.update(KEY, c -> c.plus(item(2, "4.00", 3))));
+            committed.countDown();
+            first.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Cart cart = tx.execute(s -> store.cart(KEY));
+        assertEquals(2, cart.getLineCount());
+        assertEquals(0, new BigDecimal("14.50").compareTo(cart.getTotal()));
+        assertTotalsMatchRows();
+    }
+
+    // Each transaction reads before it updates; no increment may be lost
+    @Test
+    void concurrentReadThenUpdateNeverLosesAnIncrement() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                done.add(pool.submit(() -> {
+                    await(start);
+                    for (int i = 0; i < ROUNDS; i++) {
+                        tx.executeWithoutResult(s -> {
+                            store.cart(KEY);
+                            store.update(KEY, c -> c.plus(item(1, "1.25", 1)));
+                        });
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2 * ROUNDS, store.cart(KEY).getItem(1).orElseThrow().getQuantity());
+        assertTotalsMatchRows();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Totals column values must equal the sums over the cart's line rows
+    private void assertTotalsMatchRows() {
+        Map<String, Object> totals = jdbc.queryForMap(
+                "SELECT line_count, item_count, total FROM carts WHERE cart_key = ?", KEY);
+        Map<String, Object> rows = jdbc.queryForMap(
+                "SELECT COUNT(*) AS line_count, COALESCE(SUM(quantity), 0) AS item_count,"
+                        + " COALESCE(SUM(price * quantity), 0) AS total FROM cart_items WHERE cart_key = ?", KEY);
+        assertEquals(((Number) rows.get("line_count")).intValue(), ((Number) totals.get("line_count")).intValue());
+        assertEquals(((Number) rows.get("item_count")).intValue(), ((Number) totals.get("item_count")).intValue());
+        assertEquals(0, ((BigDecimal) rows.get("total")).compareTo((BigDecimal) totals.get("total")));
+    }
+}
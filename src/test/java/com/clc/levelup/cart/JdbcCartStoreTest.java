@@ -0,0 +1,187 @@
+package com.clc.levelup.cart;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Embedded H2 in MySQL mode with the carts/cart_items schema from levelup_db.sql.
+class JdbcCartStoreTest {
+
+  /** Records every write statement the store issues. */
+  static class RecordingJdbcTemplate extends JdbcTemplate {
+    final List<String> writes = new ArrayList<>();
+
+    RecordingJdbcTemplate(DataSource ds) {
+      super(ds);
+    }
+
+    @Override
+    public int update(String sql, Object... args) {
+      writes.add(sql);
+      return super.update(sql, args);
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+      writes.add("batch:" + sql);
+      return super.batchUpdate(sql, batchArgs);
+    }
+  }
+
+  private RecordingJdbcTemplate jdbc;
+  private TransactionTemplate tx;
+  private JdbcCartStore store;
+
+  private static CartItem item(long productId, String price, int qty) {
+    return new CartItem(productId, "Product " + productId, new BigDecimal(price), qty);
+  }
+
+  @BeforeEach
+  void setUp() {
+    DataSource ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:carts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new RecordingJdbcTemplate(ds);
+    jdbc.execute("DROP TABLE IF EXISTS cart_items");
+    jdbc.execute("DROP TABLE IF EXISTS carts");
+    jdbc.execute("CREATE TABLE carts ("
+        + " cart_key VARCHAR(191) PRIMARY KEY,"
+        + " line_count INT NOT NULL DEFAULT 0,"
+        + " item_count INT NOT NULL DEFAULT 0,"
+        + " total DECIMAL(12,2) NOT NULL DEFAULT 0.00,"
+        + " updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+    jdbc.execute("CREATE TABLE cart_items ("
+        + " id BIGINT PRIMARY KEY AUTO_INCREMENT,"
+        + " cart_key VARCHAR(191) NOT NULL,"
+        + " product_id BIGINT NOT NULL,"
+        + " name VARCHAR(128) NOT NULL,"
+        + " price DECIMAL(10,2) NOT NULL,"
+        + " quantity INT NOT NULL,"
+        + " UNIQUE KEY uk_cart_items_cart_product (cart_key, product_id),"
+        + " CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_key) REFERENCES carts(cart_key) ON DELETE CASCADE)");
+    DataSourceTransactionManager txManager = new DataSourceTransactionManager(ds);
+    tx = new TransactionTemplate(txManager);
+    store = new JdbcCartStore(jdbc, txManager);
+    jdbc.writes.clear();
+  }
+
+  private long count(String prefix) {
+    return jdbc.writes.stream().filter(s -> s.startsWith(prefix)).count();
+  }
+
+  // Totals column values must equal the sums over the cart's line rows
+  private void assertTotalsMatchRows(String key) {
+    Map<String, Object> totals = jdbc.queryForMap(
+        "SELECT line_count, item_count, total FROM carts WHERE cart_key = ?", key);
+    Map<String, Object> rows = jdbc.queryForMap(
+        "SELECT COUNT(*) AS lines, COALESCE(SUM(quantity), 0) AS items, COALESCE(SUM(price * quantity), 0) AS total"
+            + " FROM cart_items WHERE cart_key = ?", key);
+    assertEquals(((Number) rows.get("lines")).intValue(), ((Number) totals.get("line_count")).intValue());
+    assertEquals(((Number) rows.get("items")).intValue(), ((Number) totals.get("item_count")).intValue());
+    assertEquals(0, ((BigDecimal) rows.get("total")).compareTo((BigDecimal) totals.get("total")));
+  }
+
+  @Test
+  void severalUpdatesInOneTransactionFlushOnce() {
+    tx.executeWithoutResult(s -> {
+      store.update("user:demo", c -> c.plus(item(1, "10.00", 2)));
+      store.update("user:demo", c -> c.plus(item(2, "4.50", 1)));
+      store.update("user:demo", c -> c.withQuantity(1, 3));
+      store.update("user:demo", c -> c.without(2));
+      store.update("user:demo", c -> c.plus(item(3, "1.25", 4)));
+
+      // Only the row lock so far; reads inside the transaction see the pending cart
+      assertEquals(1, jdbc.writes.size());
+      assertTrue(jdbc.writes.get(0).startsWith("INSERT INTO carts"));
+      assertEquals(2, store.cart("user:demo").getLineCount());
+      assertEquals(7, store.summary("user:demo").getItemCount());
+    });
+
+    // One upsert batch and one totals update at commit; line 2 never reached the table
+    assertEquals(1, count("INSERT INTO carts"));
+    assertEquals(1, count("batch:INSERT INTO cart_items"));
+    assertEquals(0, count("batch:DELETE"));
+    assertEquals(1, count("UPDATE carts"));
+    assertEquals(3, jdbc.writes.size());
+
+    Cart saved = store.cart("user:demo");
+    assertEquals(3, saved.getItem(1).orElseThrow().getQuantity());
+    assertTrue(saved.getItem(2).isEmpty());
+    assertEquals(0, new BigDecimal("35.00").compareTo(saved.getTotal()));
+    assertTotalsMatchRows("user:demo");
+  }
+
+  @Test
+  void laterTransactionWritesOnlyTheDifference() {
+    store.update("user:demo", c -> c.plus(item(1, "10.00", 1)).plus(item(2, "4.50", 2)).plus(item(3, "1.25", 1)));
+    jdbc.writes.clear();
+
+    tx.executeWithoutResult(s -> {
+      store.update("user:demo", c -> c.without(2));
+      store.update("user:demo", c -> c.withQuantity(3, 5));
+    });
+
+    assertEquals(1, count("batch:DELETE FROM cart_items"));
+    assertEquals(1, count("batch:INSERT INTO cart_items"));
+    assertEquals(1, count("UPDATE carts"));
+    assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_key = 'user:demo'", Integer.class));
+    assertTotalsMatchRows("user:demo");
+  }
+
+  @Test
+  void emptiedCartDeletesItsRows() {
+    store.update("anon:abc", c -> c.plus(item(1, "10.00", 1)).plus(item(2, "4.50", 2)));
+    assertTotalsMatchRows("anon:abc");
+
+    store.update("anon:abc", c -> Cart.EMPTY);
+
+    assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM carts WHERE cart_key = 'anon:abc'", Integer.class));
+    assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM cart_items WHERE cart_key = 'anon:abc'", Integer.class));
+    assertTrue(store.cart("anon:abc").isEmpty());
+    assertTrue(store.summary("anon:abc").isEmpty());
+  }
+
+  @Test
+  void rolledBackTransactionWritesNothing() {
+    tx.executeWithoutResult(s -> {
+      store.update("user:demo", c -> c.plus(item(1, "10.00", 2)));
+      s.setRollbackOnly();
+    });
+    assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM carts", Integer.class));
+    assertEquals(0, count("UPDATE carts"));
+  }
+
+  @Test
+  void mergeLocksTheSourceFirstAndMovesItsLinesInOneTransaction() {
+    store.update("anon:abc", c -> c.plus(item(1, "10.00", 2)).plus(item(2, "4.50", 1)));
+    store.update("user:demo", c -> c.plus(item(1, "10.00", 1)));
+    jdbc.writes.clear();
+
+    CartService carts = new CartService(store);
+    assertEquals(2, (int) tx.execute(s -> carts.merge("anon:abc", "user:demo")));
+
+    // Both rows locked, then one flush per cart at commit: the source deleted, the target updated
+    List<String> locks = jdbc.writes.stream().filter(w -> w.startsWith("INSERT INTO carts")).toList();
+    assertEquals(2, locks.size());
+    assertEquals(1, count("DELETE FROM carts"));
+    assertEquals(1, count("UPDATE carts"));
+
+    assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM carts WHERE cart_key = 'anon:abc'", Integer.class));
+    Cart merged = store.cart("user:demo");
+    assertEquals(3, merged.getItem(1).orElseThrow().getQuantity());
+    assertEquals(4, merged.getItemCount());
+    assertTotalsMatchRows("user:demo");
+
+    assertEquals(0, (int) tx.execute(s -> carts.merge("anon:abc", "user:demo")));
+  }
+}
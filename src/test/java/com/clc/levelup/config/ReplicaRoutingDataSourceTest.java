@@ -0,0 +1,151 @@
+package com.clc.levelup.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two embedded H2 databases stand in for the primary and one replica.
+class ReplicaRoutingDataSourceTest {
+
+  private ReplicaRoutingDataSource routing;
+  private SwitchableDataSource replica;
+  private JdbcTemplate jdbc;
+  private TransactionTemplate reads;
+  private TransactionTemplate writes;
+
+  /** Replica whose connections can be made to fail. */
+  static class SwitchableDataSource extends DelegatingDataSource {
+    volatile boolean down;
+
+    SwitchableDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      if (down) {
+        throw new SQLException("replica unreachable");
+      }
+      return super.getConnection();
+    }
+  }
+
+  private static DataSource h2(String name) {
+    DataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate t = new JdbcTemplate(ds);
+    t.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+    t.execute("DELETE FROM whoami");
+    t.update("INSERT INTO whoami VALUES (?)", name);
+    return ds;
+  }
+
+  @BeforeEach
+  void setUp() {
+    replica = new SwitchableDataSource(h2("replica"));
+    routing = new ReplicaRoutingDataSource(h2("primary"), List.of(replica), 0, 0);
+    DataSource lazy = new LazyConnectionDataSourceProxy(routing);
+    DataSourceTransactionManager tx = new DataSourceTransactionManager(lazy);
+    jdbc = new JdbcTemplate(lazy);
+    reads = new TransactionTemplate(tx);
+    reads.setReadOnly(true);
+    writes = new TransactionTemplate(tx);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReplicaRoutingDataSource.clearThread();
+  }
+
+  private String readOnlyServer() {
+    return reads.execute(s -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+  }
+
+  @Test
+  void readOnlyTransactionsUseReplicaAndWritesUsePrimary() {
+    assertEquals("replica", readOnlyServer());
+    assertEquals("primary", writes.execute(s -> jdbc.queryForObject("SELECT name FROM whoami", String.class)));
+    assertEquals("primary", jdbc.queryForObject("SELECT name FROM whoami", String.class));
+  }
+
+  @Test
+  void failedReplicaFallsBackToPrimaryUntilHealthy() {
+    replica.down = true;
+    assertEquals("primary", readOnlyServer());
+    assertEquals(List.of(false), routing.replicaHealth());
+
+    replica.down = false;
+    assertEquals("primary", readOnlyServer());
+    routing.checkHealth();
+    assertEquals("replica", readOnlyServer());
+  }
+
+  @Test
+  void pinnedThreadReadsItsOwnWritesFromPrimary() {
+    writes.execute(s -> jdbc.update("UPDATE whoami SET name = name"));
+    assertTrue(ReplicaRoutingDataSource.wroteOnThread());
+
+    ReplicaRoutingDataSource.pinToPrimary();
+    assertEquals("primary", readOnlyServer());
+
+    ReplicaRoutingDataSource.clearThread();
+    assertEquals("replica", readOnlyServer());
+  }
+
+  @Test
+  void sessionScopedWritePinsOnlyItsOwnThread() {
+    ReplicaRoutingDataSource lagging = new ReplicaRoutingDataSource(h2("primary"), List.of(h2("replica")), 0, 60_000);
+    DataSource lazy = new LazyConnectionDataSourceProxy(lagging);
+    DataSourceTransactionManager tx = new DataSourceTransactionManager(lazy);
+    JdbcTemplate t = new JdbcTemplate(lazy);
+    TransactionTemplate r = new TransactionTemplate(tx);
+    r.setReadOnly(true);
+    TransactionTemplate w = new TransactionTemplate(tx);
+    TransactionTemplate session = new TransactionTemplate(new SessionScopedTransactionManager(lazy));
+
+    // A cart-style write marks the thread for read-your-writes...
+    session.executeWithoutResult(s -> t.update("UPDATE whoami SET name = name"));
+    assertTrue(ReplicaRoutingDataSource.wroteOnThread());
+
+    // ...but other requests keep reading from the replica
+    ReplicaRoutingDataSource.clearThread();
+    assertEquals("replica", r.execute(s -> t.queryForObject("SELECT name FROM whoami", String.class)));
+
+    // The marker ends with its transaction: the next plain write holds every reader on the primary
+    w.executeWithoutResult(s -> t.update("UPDATE whoami SET name = name"));
+    ReplicaRoutingDataSource.clearThread();
+    assertEquals("primary", r.execute(s -> t.queryForObject("SELECT name FROM whoami", String.class)));
+  }
+
+  @Test
+  void sessionScopedWriteJoiningPlainTransactionStaysGlobal() {
+    ReplicaRoutingDataSource lagging = new ReplicaRoutingDataSource(h2("primary"), List.of(h2("replica")), 0, 60_000);
+    DataSource lazy = new LazyConnectionDataSourceProxy(lagging);
+    DataSourceTransactionManager tx = new DataSourceTransactionManager(lazy);
+    JdbcTemplate t = new JdbcTemplate(lazy);
+    TransactionTemplate r = new TransactionTemplate(tx);
+    r.setReadOnly(true);
+    TransactionTemplate w = new TransactionTemplate(tx);
+    TransactionTemplate session = new TransactionTemplate(new SessionScopedTransactionManager(lazy));
+
+    // The outer transaction also writes shared data, so joining it must not narrow the window
+    w.executeWithoutResult(outer -> {
+      t.update("UPDATE whoami SET name = name");
+      session.executeWithoutResult(s -> t.update("UPDATE whoami SET name = name"));
+    });
+    ReplicaRoutingDataSource.clearThread();
+    assertEquals("primary", r.execute(s -> t.queryForObject("SELECT name FROM whoami", String.class)));
+  }
+}
@@ -0,0 +1,159 @@
+package com.clc.levelup.orders;
+
+import com.clc.levelup.cart.CartItem;
+import com.clc.levelup.cart.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Placing an order while another tab adds to the same cart, against the application database.
+// Whichever gets the cart lock second must see the other's result: the new line is ordered or kept.
+@SpringBootTest
+class CheckoutRaceTest {
+
+    private static final long ORDERED = 7;
+    private static final long ADDED = 8;
+
+    @Autowired
+    private CheckoutService checkout;
+
+    @Autowired
+    private CartService carts;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private final List<Long> orderIds = new ArrayList<>();
+    private String key;
+    private long userId;
+    private Map<String, Object> orderedStock;
+    private Map<String, Object> addedStock;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbc.queryForObject("SELECT id FROM users WHERE username = 'demo'", Long.class);
+        key = CartService.userKey("checkout-race-test");
+        orderedStock = stock(ORDERED);
+        addedStock = stock(ADDED);
+        carts.clear(key);
+        carts.addOrIncrement(key, line(ORDERED));
+    }
+
+    @AfterEach
+    void tearDown() {
+        carts.clear(key);
+        for (Long id : orderIds) {
+            jdbc.update("DELETE FROM orders WHERE id = ?", id);
+        }
+        restore(ORDERED, orderedStock);
+        restore(ADDED, addedStock);
+    }
+
+    @Test
+    void lineAddedBeforeCheckoutLocksTheCartIsOrdered() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<CheckoutResult> placing;
+        try {
+            // The add holds the cart lock until checkout is queued behind it
+            placing = tx.execute(s -> {
+                carts.addOrIncrement(key, line(ADDED));
+                Future<CheckoutResult> f = pool.submit(() -> checkout.placeOrder(key, userId));
+                awaitLockWait();
+                return f;
+            });
+            CheckoutResult result = placing.get(30, TimeUnit.SECONDS);
+
+            assertTrue(result.isPlaced(), () -> "changes: " + result.getChanges());
+            orderIds.add(result.getOrderId());
+            assertEquals(List.of(ORDERED, ADDED), orderedProducts(result.getOrderId()));
+            assertTrue(carts.isEmpty(key));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void lineAddedWhileCheckoutHoldsTheCartIsKept() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        List<Future<?>> adding = new ArrayList<>();
+        try {
+            // Checkout holds the cart lock until the add is queued behind it
+            CheckoutResult result = tx.execute(s -> {
+                CheckoutResult placed = checkout.placeOrder(key, userId);
+                adding.add(pool.submit(() -> carts.addOrIncrement(key, line(ADDED))));
+                awaitLockWait();
+                return placed;
+            });
+            adding.get(0).get(30, TimeUnit.SECONDS);
+
+            assertTrue(result.isPlaced(), () -> "changes: " + result.getChanges());
+            orderIds.add(result.getOrderId());
+            assertEquals(List.of(ORDERED), orderedProducts(result.getOrderId()));
+            assertEquals(List.of(ADDED), carts.getItems(key).stream().map(CartItem::getProductId).toList());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Current name and price, so checkout finds nothing to change
+    private CartItem line(long productId) {
+        return jdbc.queryForObject("SELECT id, name, price FROM products WHERE id = ?",
+                (rs, n) -> new CartItem(rs.getLong("id"), rs.getString("name"), rs.getBigDecimal("price"), 1),
+                productId);
+    }
+
+    private Map<String, Object> stock(long productId) {
+        return jdbc.queryForMap("SELECT quantity, version FROM products WHERE id = ?", productId);
+    }
+
+    private void restore(long productId, Map<String, Object> stock) {
+        jdbc.update("UPDATE products SET quantity = ?, version = ? WHERE id = ?",
+                stock.get("quantity"), stock.get("version"), productId);
+    }
+
+    private List<Long> orderedProducts(long orderId) {
+        return jdbc.queryForList("SELECT product_id FROM order_items WHERE order_id = ? ORDER BY product_id",
+                Long.class, orderId);
+    }
+
+    // Returns once another connection is stuck taking the cart lock (the holder has already taken it)
+    private void awaitLockWait() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.PROCESSLIST"
+                    + " WHERE id <> CONNECTION_ID() AND info LIKE 'INSERT INTO carts %'", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("no transaction queued behind the cart lock");
+    }
+}
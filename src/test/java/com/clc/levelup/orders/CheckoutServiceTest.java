@@ -0,0 +1,65 @@
+package com.clc.levelup.orders;
+
+import com.clc.levelup.cart.Cart;
+import com.clc.levelup.cart.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Reconciliation rules only; the IN query and order write are covered by running the app.
+class CheckoutServiceTest {
+
+  private static final Cart CART = Cart.of(List.of(
+      new CartItem(1, "Tee", new BigDecimal("20.00"), 2),
+      new CartItem(2, "Mug", new BigDecimal("12.00"), 5),
+      new CartItem(3, "Cap", new BigDecimal("15.00"), 1),
+      new CartItem(4, "Pin", new BigDecimal("3.00"), 1)));
+
+  @Test
+  void currentCartIsLeftAlone() {
+    List<String> notes = new ArrayList<>();
+    Cart out = CheckoutService.reconcile(CART, Set.of(1L, 2L, 3L, 4L), Map.of(
+        1L, live("Tee", "20.00", 9), 2L, live("Mug", "12.00", 5),
+        3L, live("Cap", "15.00", 1), 4L, live("Pin", "3.00", 100)), notes);
+
+    assertSame(CART, out);
+    assertTrue(notes.isEmpty());
+  }
+
+  @Test
+  void priceStockAndDeletionsAreReconciled() {
+    List<String> notes = new ArrayList<>();
+    Cart out = CheckoutService.reconcile(CART, Set.of(1L, 2L, 3L, 4L), Map.of(
+        1L, live("Tee", "22.50", 9),   // price went up
+        2L, live("Mug", "12.00", 3),   // only 3 left
+        3L, live("Cap", "15.00", 0)),  // sold out; 4 was deleted
+        notes);
+
+    assertEquals(4, notes.size());
+    assertEquals(List.of(1L, 2L), out.getItems().stream().map(CartItem::getProductId).toList());
+    assertEquals(0, new BigDecimal("22.50").compareTo(out.getItem(1).orElseThrow().getPrice()));
+    assertEquals(3, out.getItem(2).orElseThrow().getQuantity());
+    assertEquals(0, new BigDecimal("81.00").compareTo(out.getTotal()));
+    assertEquals(5, out.getItemCount());
+  }
+
+  @Test
+  void linesAddedAfterTheLookupAreFlaggedNotDropped() {
+    List<String> notes = new ArrayList<>();
+    Cart out = CheckoutService.reconcile(CART, Set.of(1L, 2L, 3L), Map.of(
+        1L, live("Tee", "20.00", 9), 2L, live("Mug", "12.00", 5), 3L, live("Cap", "15.00", 1)), notes);
+
+    assertSame(CART, out);
+    assertEquals(1, notes.size());
+  }
+
+  private static CheckoutService.LiveProduct live(String name, String price, int stock) {
+    return new CheckoutService.LiveProduct(name, new BigDecimal(price), stock);
+  }
+}
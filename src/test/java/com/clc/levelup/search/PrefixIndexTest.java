@@ -0,0 +1,68 @@
+package com.clc.levelup.search;
+
+import com.clc.levelup.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test for prefix matching, ranking and the limit.
+class PrefixIndexTest {
+
+  private static Product product(long id, String name, String partNumber, int quantity) {
+    Product p = new Product(name, "desc", "LevelUp Co", "Apparel", partNumber, quantity, new BigDecimal("9.99"));
+    p.setId(id);
+    return p;
+  }
+
+  private static List<Long> ids(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::getId).collect(Collectors.toList());
+  }
+
+  private final PrefixIndex index = PrefixIndex.build(List.of(
+      product(1, "Boss Fight Hoodie", "LU-HD-101", 30),
+      product(2, "Boss Battle Mug", "LU-MG-200", 0),
+      product(3, "Boss Arena Poster", "LU-PS-300", 12),
+      product(4, "Retro Hoodie", "LU-HD-102", 5),
+      product(5, "Pixel Tee", "BOSS-TEE-1", 8)));
+
+  @Test
+  void matchesNameWordAndPartNumberPrefixesCaseInsensitively() {
+    assertEquals(List.of(1L, 4L), ids(index.lookup("HOOD", 10)).stream().sorted().collect(Collectors.toList()));
+    assertEquals(List.of(1L, 4L), ids(index.lookup("lu-hd", 10)));
+    assertEquals(List.of(4L), ids(index.lookup("  retro   hood", 10)));
+    assertTrue(index.lookup("zzz", 10).isEmpty());
+    assertTrue(index.lookup(" ", 10).isEmpty());
+  }
+
+  @Test
+  void inStockMatchesRankBeforeSoldOutThenByName() {
+    // Whole-name and part-number matches, in stock by name, then the sold-out mug
+    assertEquals(List.of(3L, 1L, 5L, 2L), ids(index.lookup("boss", 10)));
+  }
+
+  @Test
+  void wholeNameMatchesComeBeforeLaterWordMatches() {
+    // "Pixel Tee" starts with "p"; "Boss Arena Poster" only at a later word, despite sorting first by name
+    assertEquals(List.of(5L, 3L), ids(index.lookup("p", 10)));
+  }
+
+  @Test
+  void limitKeepsTheBestRankedMatches() {
+    assertEquals(List.of(3L, 1L), ids(index.lookup("boss", 2)));
+
+    List<Product> many = new ArrayList<>();
+    for (long id = 1; id <= 500; id++) {
+      many.add(product(id, String.format("Tee %03d", 501 - id), "P-" + id, id == 250 ? 0 : 1));
+    }
+    List<Long> top = ids(PrefixIndex.build(many).lookup("tee", 3));
+    // Names sort descending by id; the sold-out one never makes the top
+    assertEquals(List.of(500L, 499L, 498L), top);
+    assertEquals(20, PrefixIndex.build(many).lookup("t", 20).size());
+    assertEquals(0, PrefixIndex.EMPTY.lookup("t", 5).size());
+  }
+}
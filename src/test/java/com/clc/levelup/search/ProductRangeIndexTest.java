@@ -0,0 +1,82 @@
+package com.clc.levelup.search;
+
+import com.clc.levelup.model.Product;
+import com.clc.levelup.service.ProductChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: the index is fed change events directly, no Spring context.
+class ProductRangeIndexTest {
+
+  private static Product product(long id, String name, String category, int qty, String price) {
+    Product p = new Product(name, "desc", "LevelUp Co", category, "LU-" + id, qty, new BigDecimal(price));
+    p.setId(id);
+    return p;
+  }
+
+  private static List<Long> ids(FilterPage page) {
+    return page.getItems().stream().map(Product::getId).collect(Collectors.toList());
+  }
+
+  private static ProductRangeIndex index() {
+    ProductRangeIndex index = new ProductRangeIndex(null);
+    index.onProductChange(ProductChangeEvent.reloaded(List.of(
+        product(1, "Tee", "Apparel", 5, "20.00"),
+        product(2, "Hoodie", "Apparel", 0, "45.00"),
+        product(3, "Mug", "Drinkware", 9, "12.00"),
+        product(4, "Cap", "Apparel", 3, "15.00"))));
+    return index;
+  }
+
+  @Test
+  void filtersPriceRangeAndStockWithinCategory() {
+    ProductFilter f = ProductFilter.of("apparel", new BigDecimal("15"), new BigDecimal("50"), true, "price", null, null);
+    assertEquals(List.of(4L, 1L), ids(index().find(f)));
+  }
+
+  @Test
+  void sortsByNameAndNewestAcrossCatalog() {
+    ProductRangeIndex index = index();
+    assertEquals(List.of(4L, 2L, 3L, 1L), ids(index.find(ProductFilter.of(null, null, null, null, "name", null, null))));
+    assertEquals(List.of(4L, 3L, 2L, 1L), ids(index.find(ProductFilter.of(null, null, null, null, "newest", null, null))));
+  }
+
+  @Test
+  void updatesMoveProductsBetweenCategoriesAndPrices() {
+    ProductRangeIndex index = index();
+    index.onProductChange(ProductChangeEvent.updated(product(3, "Mug", "Apparel", 9, "50.00")));
+    index.onProductChange(ProductChangeEvent.deleted(1L));
+
+    assertEquals(List.of(4L, 2L, 3L),
+        ids(index.find(ProductFilter.of("Apparel", null, null, null, "price", null, null))));
+    assertTrue(index.find(ProductFilter.of("Drinkware", null, null, null, null, null, null)).getItems().isEmpty());
+  }
+
+  @Test
+  void pagesReportWhetherMoreFollow() {
+    ProductRangeIndex index = index();
+    FilterPage first = index.find(ProductFilter.of(null, null, null, null, "price", 1, 3));
+    FilterPage second = index.find(ProductFilter.of(null, null, null, null, "price", 2, 3));
+    assertTrue(first.isHasNext());
+    assertEquals(List.of(2L), ids(second));
+    assertFalse(second.isHasNext());
+  }
+
+  @Test
+  void pageDepthIsBounded() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductFilter.of(null, null, null, null, null, ProductFilter.MAX_PAGE + 1, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductFilter.of(null, null, null, null, null, Integer.MAX_VALUE, ProductFilter.MAX_SIZE));
+
+    FilterPage deepest = index().find(
+        ProductFilter.of(null, null, null, null, null, ProductFilter.MAX_PAGE, ProductFilter.MAX_SIZE));
+    assertTrue(deepest.getItems().isEmpty());
+    assertFalse(deepest.isHasNext());
+  }
+}
@@ -0,0 +1,87 @@
+package com.clc.levelup.search;
+
+import com.clc.levelup.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test for ranking, prefix/typo matching and incremental updates.
+class ProductSearchIndexTest {
+
+  private ProductSearchIndex index;
+
+  private static Product product(long id, String name, String description, String category) {
+    Product p = new Product(name, description, "LevelUp Co", category, "LU-" + id, 5, new BigDecimal("9.99"));
+    p.setId(id);
+    return p;
+  }
+
+  @BeforeEach
+  void setUp() {
+    index = new ProductSearchIndex();
+    index.rebuild(List.of(
+        product(1, "Boss Fight Hoodie", "Fleece-lined black hoodie", "Apparel"),
+        product(2, "Retro Pixel Tee", "Soft cotton tee with a hoodie print", "Apparel"),
+        product(3, "XP Gain Mug", "Ceramic mug", "Accessories")));
+  }
+
+  @Test
+  void nameMatchOutranksDescriptionMatch() {
+    List<SearchHit> hits = index.search("hoodie", 10);
+    assertEquals(2, hits.size());
+    assertEquals(1L, hits.get(0).getProductId());
+  }
+
+  @Test
+  void prefixAndTypoBothMatch() {
+    assertEquals(1L, index.search("boss hood", 10).get(0).getProductId());
+    assertEquals(3L, index.search("ceramc", 10).get(0).getProductId());
+  }
+
+  @Test
+  void updatesAndDeletesApplyIncrementally() {
+    index.put(product(3, "XP Gain Hoodie", "Warm", "Apparel"));
+    assertTrue(index.search("mug", 10).isEmpty());
+    assertEquals(3, index.search("hoodie", 10).size());
+
+    index.remove(1L);
+    assertTrue(index.search("boss", 10).isEmpty());
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  void blankQueryReturnsNothing() {
+    assertTrue(index.search("  ", 10).isEmpty());
+  }
+
+  @Test
+  void repeatedQueriesDoNotCarryScoresOver() {
+    List<SearchHit> first = index.search("hoodie mug", 10);
+    index.search("tee", 10);
+    List<SearchHit> again = index.search("hoodie mug", 10);
+    assertEquals(first.size(), again.size());
+    for (int i = 0; i < first.size(); i++) {
+      assertEquals(first.get(i).getProductId(), again.get(i).getProductId());
+      assertEquals(first.get(i).getScore(), again.get(i).getScore(), 1e-6);
+    }
+  }
+
+  @Test
+  void wideMatchKeepsTopKWithTiesByLowestId() {
+    List<Product> many = new ArrayList<>();
+    for (long id = 1; id <= 2000; id++) {
+      many.add(product(id, "Tee " + id, "Plain", "Apparel"));
+    }
+    index.rebuild(many);
+    List<SearchHit> hits = index.search("tee apparel", 5);
+    assertEquals(5, hits.size());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i + 1L, hits.get(i).getProductId());
+    }
+  }
+}
@@ -4,10 +4,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -15,6 +18,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Updated for final config:
  * - /products is public (no redirect).
  * - Authenticated users can access it as well.
+ * - The JSON cart needs only a login (no ROLE_API) but still checks CSRF.
+ * - Anonymous visitors can open the cart page; checkout still asks them to log in.
  */
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -35,4 +40,27 @@ class SecurityRedirectTest {
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser(username = "user", roles = { "USER" })
+    void cartApi_isOpenToShoppersWithoutApiRole() throws Exception {
+        mockMvc.perform(get("/api/cart"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = { "USER" })
+    void cartApi_changesStillRequireCsrfToken() throws Exception {
+        mockMvc.perform(post("/api/cart/items").contentType("application/json").content("{\"productId\":1}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousUser_canOpenCartButNotCheckout() throws Exception {
+        mockMvc.perform(get("/cart"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/checkout").accept(MediaType.TEXT_HTML))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
 }
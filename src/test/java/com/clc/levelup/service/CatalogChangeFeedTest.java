@@ -0,0 +1,98 @@
+package com.clc.levelup.service;
+
+import com.clc.levelup.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: resume logic of the change feed, no Spring context needed.
+class CatalogChangeFeedTest {
+
+  // Smallest ring the feed allows
+  private final CatalogChangeFeed feed = new CatalogChangeFeed(new ObjectMapper(), 16, 1, 60, 8, 1);
+
+  @AfterEach
+  void stop() {
+    feed.shutdown();
+  }
+
+  private void publish(int count) {
+    for (int i = 0; i < count; i++) {
+      Product p = new Product("P" + i, "desc", "LevelUp Co", "Apparel", "LU-" + i, 5, new BigDecimal("9.99"));
+      p.setId((long) i + 1);
+      feed.onProductChange(ProductChangeEvent.updated(p));
+    }
+  }
+
+  private static List<Long> seqs(List<CatalogChangeFeed.FeedEvent> events) {
+    List<Long> out = new ArrayList<>();
+    for (CatalogChangeFeed.FeedEvent fe : events) {
+      out.add(fe.seq);
+    }
+    return out;
+  }
+
+  @Test
+  void noIdMeansLiveEventsOnly() {
+    publish(3);
+    List<CatalogChangeFeed.FeedEvent> out = new ArrayList<>();
+    assertFalse(feed.collectReplay(null, out));
+    assertFalse(feed.collectReplay(" ", out));
+    assertTrue(out.isEmpty());
+  }
+
+  @Test
+  void idInsideTheWindowReplaysEverythingAfterIt() {
+    publish(5);
+    List<CatalogChangeFeed.FeedEvent> out = new ArrayList<>();
+    assertFalse(feed.collectReplay(feed.id(2), out));
+    assertEquals(List.of(3L, 4L, 5L), seqs(out));
+    assertEquals("updated", out.get(0).name);
+    assertTrue(out.get(0).data.contains("\"productId\":3"));
+  }
+
+  @Test
+  void upToDateIdReplaysNothing() {
+    publish(5);
+    List<CatalogChangeFeed.FeedEvent> out = new ArrayList<>();
+    assertFalse(feed.collectReplay(feed.id(5), out));
+    assertTrue(out.isEmpty());
+  }
+
+  @Test
+  void idFromAnotherBootIsAReset() {
+    publish(5);
+    List<CatalogChangeFeed.FeedEvent> out = new ArrayList<>();
+    assertTrue(feed.collectReplay("0-2", out));
+    assertTrue(feed.collectReplay("garbage", out));
+    assertTrue(feed.collectReplay(feed.id(2) + "x", out));
+    assertTrue(out.isEmpty());
+  }
+
+  @Test
+  void idAheadOfTheFeedIsAReset() {
+    publish(2);
+    assertTrue(feed.collectReplay(feed.id(3), new ArrayList<>()));
+  }
+
+  @Test
+  void idThatFellOutOfTheBufferIsAReset() {
+    publish(20);
+    // Ring of 16 holds 5..20: resuming after 4 still works, after 3 it does not
+    List<CatalogChangeFeed.FeedEvent> out = new ArrayList<>();
+    assertFalse(feed.collectReplay(feed.id(4), out));
+    assertEquals(16, out.size());
+    assertEquals(5L, out.get(0).seq);
+    assertEquals(20L, out.get(15).seq);
+
+    out.clear();
+    assertTrue(feed.collectReplay(feed.id(3), out));
+    assertTrue(out.isEmpty());
+  }
+}
@@ -0,0 +1,31 @@
+package com.clc.levelup.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: listing ETags only use the in-memory version, no database needed.
+class CatalogVersionTest {
+
+  private final CatalogVersion version = new CatalogVersion(null);
+
+  @Test
+  void variantsWithEqualHashCodesGetDifferentTags() {
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    assertNotEquals(version.listEtag("ids=Aa"), version.listEtag("ids=BB"));
+  }
+
+  @Test
+  void sameVariantAndVersionGiveTheSameTag() {
+    assertEquals(version.listEtag("sort=name&size=5"), version.listEtag("sort=name&size=5"));
+    assertNotEquals(version.listEtag(""), version.listEtag("sort=name&size=5"));
+    assertTrue(version.listEtag("ids=[1, 2]").matches("\"[A-Za-z0-9_-]+\""));
+  }
+
+  @Test
+  void everyChangeIssuesNewTags() {
+    String before = version.listEtag("ids=1");
+    version.onProductChange(ProductChangeEvent.deleted(1L));
+    assertNotEquals(before, version.listEtag("ids=1"));
+  }
+}
@@ -0,0 +1,59 @@
+package com.clc.levelup.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test for the RFC 4180 corner cases the import relies on.
+class CsvRecordReaderTest {
+
+  private static List<List<String>> readAll(String csv) throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+    List<List<String>> out = new ArrayList<>();
+    List<String> record;
+    while ((record = reader.next()) != null) {
+      out.add(record);
+    }
+    return out;
+  }
+
+  @Test
+  void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+    List<List<String>> rows = readAll("a,\"b, c\",\"say \"\"hi\"\"\",\"\"\n");
+    assertEquals(List.of(List.of("a", "b, c", "say \"hi\"", "")), rows);
+  }
+
+  @Test
+  void lineBreaksInsideQuotesStayInTheField() throws IOException {
+    CsvRecordReader reader = new CsvRecordReader(new StringReader("h1,h2\nx,\"two\nlines\"\r\ny,z\n"));
+    reader.next();
+    assertEquals(List.of("x", "two\nlines"), reader.next());
+    assertEquals(2, reader.recordLine());
+    assertEquals(List.of("y", "z"), reader.next());
+    // The record after a two-line field starts on line 4
+    assertEquals(4, reader.recordLine());
+    assertNull(reader.next());
+  }
+
+  @Test
+  void crlfAndBlankLinesAndMissingFinalNewline() throws IOException {
+    assertEquals(List.of(List.of("a", "b"), List.of("c", "")),
+                 readAll("a,b\r\n\r\n\nc,"));
+  }
+
+  @Test
+  void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+    assertEquals(List.of(List.of("5\" disc", "x")), readAll("5\" disc,x\n"));
+  }
+
+  @Test
+  void unterminatedQuoteReportsItsStartLine() {
+    IOException ex = assertThrows(IOException.class, () -> readAll("a,b\n\"open,\nnever closed\n"));
+    assertTrue(ex.getMessage().contains("line 2"), ex.getMessage());
+  }
+}
@@ -0,0 +1,120 @@
+package com.clc.levelup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: request parsing and the generated UPDATE, no database needed.
+class ProductBulkServiceTest {
+
+  private static BulkAdjustment adj(BulkAdjustment.Operation op, String value) {
+    BulkAdjustment a = new BulkAdjustment();
+    a.setOperation(op);
+    a.setValue(value == null ? null : new BigDecimal(value));
+    a.setCategory("Apparel");
+    return a;
+  }
+
+  @Test
+  void requestBodyParsesOperationValueAndSelector() throws Exception {
+    BulkAdjustment a = new ObjectMapper().readValue(
+        "{\"operation\":\"PERCENT_PRICE\",\"value\":-12.5,\"ids\":[3,4]}", BulkAdjustment.class);
+    assertEquals(BulkAdjustment.Operation.PERCENT_PRICE, a.getOperation());
+    assertEquals(new BigDecimal("-12.5"), a.getValue());
+    assertEquals(List.of(3L, 4L), a.getIds());
+
+    assertThrows(InvalidFormatException.class, () -> new ObjectMapper().readValue(
+        "{\"operation\":\"DOUBLE_STOCK\",\"value\":2}", BulkAdjustment.class));
+  }
+
+  @Test
+  void addStockIsClampedToTheIntColumn() {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = ProductBulkService.statement(adj(BulkAdjustment.Operation.ADD_STOCK, "2000000000"), params);
+    assertEquals("UPDATE products SET quantity = LEAST(2147483647, GREATEST(0, quantity + :delta)), "
+        + "version = version + 1 WHERE category = :category", sql);
+    assertEquals(2_000_000_000, params.getValue("delta"));
+    assertEquals("Apparel", params.getValue("category"));
+  }
+
+  @Test
+  void stockAmountsMustBeWholeIntValues() {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.ADD_STOCK, "1.5"), params));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.ADD_STOCK, "3000000000"), params));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.SET_STOCK, "-1"), params));
+  }
+
+  @Test
+  void priceOperationsAreBoundedAndRounded() {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String sql = ProductBulkService.statement(adj(BulkAdjustment.Operation.PERCENT_PRICE, "10"), params);
+    assertTrue(sql.startsWith("UPDATE products SET price = LEAST(99999999.99, GREATEST(0, ROUND(price * :factor, 2)))"));
+    assertEquals(0, new BigDecimal("1.1").compareTo((BigDecimal) params.getValue("factor")));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.PERCENT_PRICE, "-101"), params));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.SET_PRICE, "1.999"), params));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(adj(BulkAdjustment.Operation.SET_PRICE, null), params));
+  }
+
+  @Test
+  void exactlyOneSelectorIsRequired() {
+    BulkAdjustment none = adj(BulkAdjustment.Operation.SET_STOCK, "5");
+    none.setCategory(null);
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(none, new MapSqlParameterSource()));
+
+    BulkAdjustment two = adj(BulkAdjustment.Operation.SET_STOCK, "5");
+    two.setIds(List.of(1L));
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(two, new MapSqlParameterSource()));
+
+    BulkAdjustment tooMany = adj(BulkAdjustment.Operation.SET_STOCK, "5");
+    tooMany.setCategory(null);
+    List<Long> ids = new ArrayList<>();
+    for (long i = 0; i <= ProductBulkService.MAX_IDS; i++) {
+      ids.add(i);
+    }
+    tooMany.setIds(ids);
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductBulkService.statement(tooMany, new MapSqlParameterSource()));
+  }
+
+  @Test
+  void partNumberPatternBecomesAnEscapedLike() {
+    BulkAdjustment a = adj(BulkAdjustment.Operation.SET_STOCK, "5");
+    a.setCategory(null);
+    a.setPartNumberPattern(" LU_TS%!-* ");
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    assertTrue(ProductBulkService.statement(a, params).endsWith("WHERE partNumber LIKE :pattern ESCAPE '!'"));
+    assertEquals("LU!_TS!%!!-%", params.getValue("pattern"));
+  }
+
+  // The changed rows are re-read with the UPDATE's own WHERE clause and parameters
+  @Test
+  void changedRowsAreReselectedWithTheSameWhereClause() {
+    BulkAdjustment a = adj(BulkAdjustment.Operation.SET_PRICE, "9.99");
+    a.setCategory(null);
+    a.setIds(List.of(3L, 4L));
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    String update = ProductBulkService.statement(a, params);
+    String select = ProductBulkService.selectIds(a, params);
+
+    assertEquals("SELECT id FROM products WHERE id IN (:ids)", select);
+    assertTrue(update.endsWith(select.substring(select.indexOf(" WHERE "))));
+    assertEquals(List.of(3L, 4L), params.getValue("ids"));
+  }
+}
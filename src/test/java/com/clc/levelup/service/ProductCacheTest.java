@@ -0,0 +1,66 @@
+package com.clc.levelup.service;
+
+import com.clc.levelup.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: no Spring context or database needed.
+class ProductCacheTest {
+
+  private static Product product(long id) {
+    Product p = new Product("P" + id, "desc", "LevelUp Co", "Apparel", "LU-" + id, 5, new BigDecimal("9.99"));
+    p.setId(id);
+    return p;
+  }
+
+  @Test
+  void readThroughCountsHitsAndMisses() {
+    ProductCache cache = new ProductCache(10, 60);
+    assertTrue(cache.get(1L).isEmpty());
+    cache.put(product(1), cache.generation());
+    assertTrue(cache.get(1L).isPresent());
+
+    ProductCache.Stats stats = cache.stats();
+    assertEquals(1, stats.getHits());
+    assertEquals(1, stats.getMisses());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedOverLimit() {
+    ProductCache cache = new ProductCache(2, 60);
+    cache.put(product(1), cache.generation());
+    cache.put(product(2), cache.generation());
+    cache.get(1L);
+    cache.put(product(3), cache.generation());
+
+    assertTrue(cache.get(1L).isPresent());
+    assertTrue(cache.get(2L).isEmpty());
+    assertEquals(1, cache.stats().getEvictions());
+  }
+
+  @Test
+  void stalePutAfterInvalidationIsIgnored() {
+    ProductCache cache = new ProductCache(10, 60);
+    long before = cache.generation();
+    cache.invalidate(1L);
+    cache.put(product(1), before);
+    assertTrue(cache.get(1L).isEmpty());
+  }
+
+  @Test
+  void fullListOnlyCachedWhenItFits() {
+    ProductCache small = new ProductCache(1, 60);
+    small.putAll(List.of(product(1), product(2)), small.generation());
+    assertTrue(small.getAll().isEmpty());
+
+    ProductCache big = new ProductCache(10, 60);
+    big.putAll(List.of(product(1), product(2)), big.generation());
+    assertEquals(2, big.getAll().orElseThrow().size());
+    big.invalidate(2L);
+    assertTrue(big.getAll().isEmpty());
+  }
+}
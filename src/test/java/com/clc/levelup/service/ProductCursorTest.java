@@ -0,0 +1,57 @@
+package com.clc.levelup.service;
+
+import com.clc.levelup.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: cursor tokens round-trip and bad tokens are rejected.
+class ProductCursorTest {
+
+  private static Product product(long id, String name) {
+    Product p = new Product(name, "desc", "LevelUp Co", "Apparel", "LU-" + id, 5, new BigDecimal("9.99"));
+    p.setId(id);
+    return p;
+  }
+
+  private static String token(String raw) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void nameCursorRoundTripsIdAndName() {
+    String encoded = ProductCursor.after(ProductSort.NAME, product(42, "Mug & Tee, \"Deluxe\" / 2")).encode();
+    ProductCursor decoded = ProductCursor.decode(encoded, ProductSort.NAME);
+
+    assertEquals(42, decoded.getLastId());
+    assertEquals("Mug & Tee, \"Deluxe\" / 2", decoded.getLastName());
+    assertTrue(encoded.matches("[A-Za-z0-9_-]+"), "token must be URL-safe");
+  }
+
+  @Test
+  void idCursorCarriesNoName() {
+    ProductCursor decoded = ProductCursor.decode(ProductCursor.after(ProductSort.ID, product(7, "Tee")).encode(),
+                                                 ProductSort.ID);
+    assertEquals(7, decoded.getLastId());
+    assertNull(decoded.getLastName());
+  }
+
+  @Test
+  void cursorForAnotherSortIsRejected() {
+    String byId = ProductCursor.after(ProductSort.ID, product(7, "Tee")).encode();
+    assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(byId, ProductSort.NAME));
+  }
+
+  @Test
+  void malformedTokensAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("not base64!", ProductSort.ID));
+    assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token("BOGUS\u00007"), ProductSort.ID));
+    assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token("ID\u0000seven"), ProductSort.ID));
+    // NAME cursor without its name field
+    assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode(token("NAME\u00007"), ProductSort.NAME));
+  }
+}
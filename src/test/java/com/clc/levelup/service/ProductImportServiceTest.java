@@ -0,0 +1,81 @@
+package com.clc.levelup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: rows that fail validation never reach the database,
+// so the reporting paths run without one.
+class ProductImportServiceTest {
+
+  private static final String HEADER = "partNumber,name,description,manufacturer,category,quantity,price\n";
+
+  private final ProductImportService imports =
+      new ProductImportService(null, new ObjectMapper(), null, null, null);
+
+  private ImportSummary csv(String body) {
+    return imports.importCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+  }
+
+  private ImportSummary json(String body) {
+    return imports.importJson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void eachBadRowIsReportedWithItsLineAndReason() {
+    ImportSummary s = csv(HEADER
+        + "LU-1,Tee,\"Soft,\nwarm\",LevelUp,Apparel,many,9.99\n"
+        + "LU-2,,Mug,LevelUp,Kitchen,3,4.50\n"
+        + "LU-3,Cap,Cap,LevelUp,Apparel,-1,4.50\n"
+        + "LU-4,Pin,Pin,LevelUp,Accessories,2,1.999\n");
+
+    assertFalse(s.isAborted());
+    assertEquals(4, s.getRowsRead());
+    assertEquals(4, s.getFailed());
+    assertEquals(0, s.getUpserted());
+
+    assertEquals(2, s.getErrors().get(0).getRow());
+    assertEquals("LU-1", s.getErrors().get(0).getPartNumber());
+    assertEquals("quantity must be a whole number", s.getErrors().get(0).getMessage());
+    // The quoted description spans lines 2-3, so the next record starts on line 4
+    assertEquals(4, s.getErrors().get(1).getRow());
+    assertEquals("name is required", s.getErrors().get(1).getMessage());
+    assertEquals("quantity must be 0 or more", s.getErrors().get(2).getMessage());
+    assertTrue(s.getErrors().get(3).getMessage().startsWith("price must be between"));
+  }
+
+  @Test
+  void listedErrorsAreCappedButCountedInFull() {
+    StringBuilder body = new StringBuilder(HEADER);
+    for (int i = 0; i < 250; i++) {
+      body.append("LU-").append(i).append(",Tee,Tee,LevelUp,Apparel,1,free\n");
+    }
+    ImportSummary s = csv(body.toString());
+    assertEquals(250, s.getFailed());
+    assertEquals(ImportSummary.MAX_REPORTED_ERRORS, s.getErrors().size());
+    assertEquals(2, s.getErrors().get(0).getRow());
+  }
+
+  @Test
+  void badHeaderOrInputAbortsTheImport() {
+    assertEquals("Empty input", csv("").getAbortedReason());
+    assertEquals("Missing CSV column: price", csv("partNumber,name,description,manufacturer,category,quantity\n")
+        .getAbortedReason());
+    assertTrue(csv(HEADER + "LU-1,\"open\n").getAbortedReason().contains("Unterminated"));
+  }
+
+  @Test
+  void jsonRowsAreNumberedByElement() {
+    ImportSummary s = json("[{\"partNumber\":\"LU-1\",\"name\":\"Tee\"}, 42]");
+    assertEquals(2, s.getFailed());
+    assertEquals(1, s.getErrors().get(0).getRow());
+    assertEquals("description is required", s.getErrors().get(0).getMessage());
+    assertEquals("Expected a JSON object", s.getErrors().get(1).getMessage());
+
+    assertTrue(json("[{\"name\": ").isAborted());
+  }
+}
@@ -0,0 +1,83 @@
+package com.clc.levelup.service;
+
+import com.clc.levelup.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Walks the keyset pages over the real catalog and compares them with a plain ORDER BY.
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductPagingTest {
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private MockMvc mvc;
+
+  private List<Long> walk(ProductSort sort, int size) {
+    List<Long> ids = new ArrayList<>();
+    String after = null;
+    for (int guard = 0; guard < 10_000; guard++) {
+      ProductPage page = productService.findPage(sort, after, size);
+      assertTrue(page.getItems().size() <= size);
+      for (Product p : page.getItems()) {
+        ids.add(p.getId());
+      }
+      if (!page.hasNext()) {
+        return ids;
+      }
+      after = page.getNextCursor();
+    }
+    throw new AssertionError("pager did not terminate");
+  }
+
+  @Test
+  void namePagesMatchOrderByNameThenId() {
+    List<Long> expected = jdbc.queryForList("SELECT id FROM products ORDER BY name, id", Long.class);
+    assertEquals(expected, walk(ProductSort.NAME, 3));
+  }
+
+  @Test
+  void idPagesMatchOrderById() {
+    List<Long> expected = jdbc.queryForList("SELECT id FROM products ORDER BY id", Long.class);
+    assertEquals(expected, walk(ProductSort.ID, 4));
+  }
+
+  @Test
+  void pageSizeIsCapped() {
+    ProductPage page = productService.findPage(ProductSort.ID, null, 10_000);
+    assertEquals(ProductService.MAX_PAGE_SIZE, page.getSize());
+  }
+
+  @Test
+  @WithMockUser(username = "api", roles = "API")
+  void badCursorIsA400() throws Exception {
+    String byId = productService.findPage(ProductSort.ID, null, 1).getNextCursor();
+    mvc.perform(get("/api/products").param("sort", "name").param("after", byId))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Cursor does not match sort order."));
+    mvc.perform(get("/api/products").param("after", "%%%"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Invalid cursor."));
+    mvc.perform(get("/api/products").param("sort", "colour").param("size", "5"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Unknown sort: colour"));
+  }
+}
@@ -0,0 +1,134 @@
+package com.clc.levelup.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: drives the filter with mock requests, no Spring context.
+class PageCacheFilterTest {
+
+  private static final HttpSessionCsrfTokenRepository TOKENS = new HttpSessionCsrfTokenRepository();
+
+  private final PageCache cache = new PageCache(10, 60);
+  private final CartKeyResolver cartKeys = new CartKeyResolver("levelup_cart", 1);
+  private final PageCacheFilter filter = new PageCacheFilter(cache, cartKeys);
+  private final AtomicInteger renders = new AtomicInteger();
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  // Stands in for the view: writes the request's CSRF token into a form, as Thymeleaf does
+  private Servlet view(Runnable duringRender) {
+    return new HttpServlet() {
+      @Override
+      protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        renders.incrementAndGet();
+        duringRender.run();
+        CsrfToken token = (CsrfToken) req.getAttribute(CsrfToken.class.getName());
+        resp.setContentType("text/html;charset=UTF-8");
+        resp.getWriter().write("<form><input name=\"_csrf\" value=\"" + token.getToken() + "\"></form>");
+      }
+    };
+  }
+
+  // A request carrying its own session-held token, as CsrfFilter would leave it
+  private static MockHttpServletRequest request(String token) {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/products/list");
+    CsrfToken csrf = new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", token);
+    TOKENS.saveToken(csrf, req, new MockHttpServletResponse());
+    req.setAttribute(CsrfToken.class.getName(), csrf);
+    return req;
+  }
+
+  private MockHttpServletResponse run(MockHttpServletRequest req, Runnable duringRender) throws Exception {
+    MockHttpServletResponse resp = new MockHttpServletResponse();
+    filter.doFilter(req, resp, new MockFilterChain(view(duringRender)));
+    return resp;
+  }
+
+  private MockHttpServletResponse run(MockHttpServletRequest req) throws Exception {
+    return run(req, () -> { });
+  }
+
+  @Test
+  void anonymousHitCarriesTheSecondVisitorsOwnToken() throws Exception {
+    MockHttpServletResponse first = run(request("token-one"));
+    assertEquals("MISS", first.getHeader("X-Page-Cache"));
+    assertTrue(first.getContentAsString().contains("value=\"token-one\""));
+
+    MockHttpServletResponse second = run(request("token-two"));
+    assertEquals("HIT", second.getHeader("X-Page-Cache"));
+    assertTrue(second.getContentAsString().contains("value=\"token-two\""));
+    assertFalse(second.getContentAsString().contains("token-one"));
+    assertEquals(1, renders.get());
+  }
+
+  @Test
+  void signedInUserBypassesTheCache() throws Exception {
+    run(request("token-one"));
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("demo", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+    MockHttpServletResponse resp = run(request("token-two"));
+    assertNull(resp.getHeader("X-Page-Cache"));
+    assertEquals(2, renders.get());
+    assertEquals(1L, cache.stats().get("bypasses"));
+  }
+
+  @Test
+  void pendingFlashMessageBypassesTheCache() throws Exception {
+    run(request("token-one"));
+    MockHttpServletRequest req = request("token-two");
+    FlashMap flash = new FlashMap();
+    flash.put("message", "Product saved");
+    req.getSession().setAttribute(SessionFlashMapManager.class.getName() + ".FLASH_MAPS", List.of(flash));
+
+    MockHttpServletResponse resp = run(req);
+    assertNull(resp.getHeader("X-Page-Cache"));
+    assertEquals(2, renders.get());
+  }
+
+  @Test
+  void anonymousCartCookieBypassesTheCache() throws Exception {
+    run(request("token-one"));
+    MockHttpServletRequest req = request("token-two");
+    req.setCookies(new Cookie("levelup_cart", "AAAAAAAAAAAAAAAAAAAAAA"));
+
+    MockHttpServletResponse resp = run(req);
+    assertNull(resp.getHeader("X-Page-Cache"));
+    assertEquals(2, renders.get());
+  }
+
+  @Test
+  void pageRenderedAcrossACatalogChangeIsNotStored() throws Exception {
+    MockHttpServletResponse first = run(request("token-one"), cache::invalidateAll);
+    assertEquals("MISS", first.getHeader("X-Page-Cache"));
+
+    MockHttpServletResponse second = run(request("token-two"));
+    assertEquals("MISS", second.getHeader("X-Page-Cache"));
+    assertEquals(2, renders.get());
+  }
+}
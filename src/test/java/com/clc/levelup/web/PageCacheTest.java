@@ -0,0 +1,85 @@
+package com.clc.levelup.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plain unit test: no Spring context or database needed.
+class PageCacheTest {
+
+  private static final String HTML = "text/html;charset=UTF-8";
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String text(byte[] b) {
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void spliceRoundTripPutsTheVisitorsTokenInEverySlot() {
+    String body = "<form><input name=\"_csrf\" value=\"tok-A\"></form><meta content=\"tok-A\">";
+    PageCache.Page page = PageCache.Page.of(HTML, bytes(body), "tok-A");
+
+    assertTrue(page.needsToken());
+    assertEquals(body, text(page.render("tok-A")));
+    assertEquals("<form><input name=\"_csrf\" value=\"tok-B\"></form><meta content=\"tok-B\">",
+                 text(page.render("tok-B")));
+  }
+
+  @Test
+  void spliceHandlesTokenAtTheEdgesOfTheBody() {
+    PageCache.Page page = PageCache.Page.of(HTML, bytes("tok-A middle tok-A"), "tok-A");
+    assertEquals("X middle X", text(page.render("X")));
+  }
+
+  @Test
+  void pageWithoutTokenIsServedAsIs() {
+    PageCache.Page none = PageCache.Page.of(HTML, bytes("<p>static</p>"), null);
+    assertFalse(none.needsToken());
+    assertEquals("<p>static</p>", text(none.render("ignored")));
+
+    // A token that never made it into the body leaves a single segment too
+    PageCache.Page unused = PageCache.Page.of(HTML, bytes("<p>static</p>"), "tok-A");
+    assertFalse(unused.needsToken());
+  }
+
+  @Test
+  void renderStartedBeforeAChangeIsNotStored() {
+    PageCache cache = new PageCache(10, 60);
+    long before = cache.generation();
+    cache.invalidateAll();
+
+    cache.put("/products", PageCache.Page.of(HTML, bytes("old"), null), before);
+    assertNull(cache.get("/products"));
+
+    cache.put("/products", PageCache.Page.of(HTML, bytes("new"), null), cache.generation());
+    assertEquals("new", text(cache.get("/products").render(null)));
+  }
+
+  @Test
+  void invalidationDropsStoredPages() {
+    PageCache cache = new PageCache(10, 60);
+    cache.put("/products/1", PageCache.Page.of(HTML, bytes("p1"), null), cache.generation());
+    cache.invalidateAll();
+    assertNull(cache.get("/products/1"));
+    assertEquals(1L, cache.stats().get("invalidations"));
+  }
+
+  @Test
+  void leastRecentlyUsedPageIsEvicted() {
+    PageCache cache = new PageCache(2, 60);
+    long gen = cache.generation();
+    cache.put("a", PageCache.Page.of(HTML, bytes("a"), null), gen);
+    cache.put("b", PageCache.Page.of(HTML, bytes("b"), null), gen);
+    cache.get("a");
+    cache.put("c", PageCache.Page.of(HTML, bytes("c"), null), gen);
+
+    assertNotNull(cache.get("a"));
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("c"));
+  }
+}